@@ -0,0 +1,502 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code RowMapper} for every class using the Framework's database annotations
+ * <p></p>
+ * <p>For a class {@code com.example.PlayerData} which has a field or constructor parameter</p>
+ * <p>annotated with {@code @Column}, or a constructor annotated with {@code @DatabaseConstructor},</p>
+ * <p>this generates {@code com.example.PlayerData_RowMapper}. It binds the same columns as the</p>
+ * <p>runtime {@code ObjectMapping} and reads the constructor's columns by index with typed getters.</p>
+ * <p></p>
+ * <p>A class is skipped, and keeps using runtime reflection, when one of its saved fields is private</p>
+ * <p>without a non-private getter, when its {@code @DatabaseConstructor} is private, or when it's</p>
+ * <p>generic, local, anonymous or a non-static inner class.</p>
+ * <p></p>
+ * <p>Annotations are matched by name, so this processor doesn't depend on the Framework itself.</p>
+ */
+@SupportedAnnotationTypes({
+        RowMapperProcessor.COLUMN,
+        RowMapperProcessor.DATABASE_CONSTRUCTOR
+})
+public class RowMapperProcessor extends AbstractProcessor {
+
+    static final String COLUMN = "games.negative.framework.database.annotation.Column";
+    static final String DATABASE_CONSTRUCTOR = "games.negative.framework.database.annotation.constructor.DatabaseConstructor";
+    static final String DONT_SAVE = "games.negative.framework.database.annotation.DontSave";
+
+    private static final String ROW_MAPPER = "games.negative.framework.database.mapping.RowMapper";
+    private static final String ROW_MAPPERS = "games.negative.framework.database.mapping.RowMappers";
+    private static final String SUFFIX = "_RowMapper";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                TypeElement type = enclosingType(element);
+                if (type != null)
+                    types.add(type);
+            }
+        }
+
+        for (TypeElement type : types) {
+            if (generated.add(type.getQualifiedName().toString()))
+                generate(type);
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        if (!isMappable(type))
+            return;
+
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String mapperName = flatName(type) + SUFFIX;
+        String typeName = type.getQualifiedName().toString();
+
+        // Saved fields, from the class and its direct superclass, in the same order as ObjectMapping
+        List<String> writeColumns = new ArrayList<>();
+        List<String> writeStatements = new ArrayList<>();
+        List<TypeElement> owners = new ArrayList<>();
+        owners.add(type);
+        TypeElement superclass = superclassOf(type);
+        if (superclass != null)
+            owners.add(superclass);
+
+        for (TypeElement owner : owners) {
+            for (VariableElement field : ElementFilter.fieldsIn(owner.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC)) continue;
+                if (mirror(field, DONT_SAVE) != null) continue;
+
+                String access = accessor(type, owner, field, packageName);
+                if (access == null) {
+                    skip(type, "field " + field.getSimpleName() + " is private and has no getter");
+                    return;
+                }
+
+                int index = writeColumns.size();
+                writeColumns.add(columnName(field, field.getSimpleName().toString()));
+                writeStatements.add(bindStatement(field.asType(), "object." + access, "offset + " + index));
+            }
+        }
+
+        // The @DatabaseConstructor, and the column of each of its parameters
+        ExecutableElement constructor = null;
+        for (ExecutableElement candidate : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (mirror(candidate, DATABASE_CONSTRUCTOR) != null)
+                constructor = candidate;
+        }
+
+        if (constructor != null && constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            skip(type, "its @DatabaseConstructor is private");
+            return;
+        }
+
+        boolean readable = constructor != null && !type.getModifiers().contains(Modifier.ABSTRACT);
+        boolean unchecked = false;
+        List<String> readColumns = new ArrayList<>();
+        List<String> readArguments = new ArrayList<>();
+        if (readable) {
+            for (VariableElement parameter : constructor.getParameters()) {
+                AnnotationMirror column = mirror(parameter, COLUMN);
+                if (column == null) {
+                    readArguments.add(defaultValue(parameter.asType()));
+                    continue;
+                }
+
+                int index = readColumns.size();
+                readColumns.add(annotationValue(column));
+                readArguments.add(readExpression(parameter.asType(), "offset + " + index));
+                // A generic parameter is read through its erased class
+                if (parameter.asType().getKind() == TypeKind.DECLARED && !((DeclaredType) parameter.asType()).getTypeArguments().isEmpty())
+                    unchecked = true;
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty())
+            source.append("package ").append(packageName).append(";\n\n");
+
+        source.append("/**\n * Generated by the Framework-Processor for {@link ").append(typeName).append("}\n */\n");
+        source.append("public final class ").append(mapperName).append(" implements ").append(ROW_MAPPER).append("<").append(typeName).append("> {\n\n");
+
+        source.append("    private static final java.util.List<String> WRITE_COLUMNS = ").append(listOf(writeColumns)).append(";\n");
+        source.append("    private static final java.util.List<String> READ_COLUMNS = ").append(listOf(readColumns)).append(";\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public Class<").append(typeName).append("> getType() {\n");
+        source.append("        return ").append(typeName).append(".class;\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public java.util.List<String> getWriteColumns() {\n");
+        source.append("        return WRITE_COLUMNS;\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public java.util.List<String> getReadColumns() {\n");
+        source.append("        return READ_COLUMNS;\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public void bind(").append(typeName).append(" object, java.sql.PreparedStatement statement, int offset) throws java.sql.SQLException {\n");
+        for (String statement : writeStatements)
+            source.append("        ").append(statement).append("\n");
+        source.append("    }\n");
+
+        // Without a constructor to read through, the interface's read() reports it's unsupported
+        if (readable) {
+            source.append("\n");
+            if (unchecked)
+                source.append("    @SuppressWarnings(\"unchecked\")\n");
+            source.append("    @Override\n");
+            source.append("    public ").append(typeName).append(" read(java.sql.ResultSet set, int offset) throws java.sql.SQLException {\n");
+            source.append("        return new ").append(typeName).append("(");
+            for (int i = 0; i < readArguments.size(); i++) {
+                source.append(i == 0 ? "\n                " : ",\n                ").append(readArguments.get(i));
+            }
+            source.append("\n        );\n");
+            source.append("    }\n");
+        }
+        source.append("}\n");
+
+        String qualifiedMapperName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedMapperName, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + qualifiedMapperName + ": " + e.getMessage(), type);
+        }
+    }
+
+    private boolean isMappable(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            skip(type, "it isn't a class");
+            return false;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            skip(type, "it's generic");
+            return false;
+        }
+
+        Element current = type;
+        while (current instanceof TypeElement) {
+            TypeElement element = (TypeElement) current;
+            if (element.getNestingKind() == NestingKind.LOCAL || element.getNestingKind() == NestingKind.ANONYMOUS) {
+                skip(type, "it's a local or anonymous class");
+                return false;
+            }
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                skip(type, "it's private");
+                return false;
+            }
+            if (element.getNestingKind() == NestingKind.MEMBER && !element.getModifiers().contains(Modifier.STATIC)) {
+                skip(type, "it's a non-static inner class");
+                return false;
+            }
+            current = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * Finds how the generated mapper reads a field: directly, or through a getter
+     */
+    private String accessor(TypeElement type, TypeElement owner, VariableElement field, String packageName) {
+        if (isAccessible(field, owner, packageName))
+            return field.getSimpleName().toString();
+
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean bool = field.asType().getKind() == TypeKind.BOOLEAN;
+
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            String methodName = method.getSimpleName().toString();
+            boolean matches = methodName.equals("get" + capitalized) || (bool && methodName.equals("is" + capitalized));
+            if (!matches || !method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.STATIC))
+                continue;
+            if (!processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType()))
+                continue;
+            if (isAccessible(method, (TypeElement) method.getEnclosingElement(), packageName))
+                return methodName + "()";
+        }
+        return null;
+    }
+
+    private boolean isAccessible(Element member, TypeElement owner, String packageName) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE))
+            return false;
+        if (modifiers.contains(Modifier.PUBLIC))
+            return true;
+
+        PackageElement ownerPackage = processingEnv.getElementUtils().getPackageOf(owner);
+        String ownerPackageName = ownerPackage.isUnnamed() ? "" : ownerPackage.getQualifiedName().toString();
+        return ownerPackageName.equals(packageName);
+    }
+
+    private String bindStatement(TypeMirror type, String value, String index) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "statement.setBoolean(" + index + ", " + value + ");";
+            case BYTE:
+                return "statement.setByte(" + index + ", " + value + ");";
+            case SHORT:
+                return "statement.setShort(" + index + ", " + value + ");";
+            case INT:
+                return "statement.setInt(" + index + ", " + value + ");";
+            case LONG:
+                return "statement.setLong(" + index + ", " + value + ");";
+            case FLOAT:
+                return "statement.setFloat(" + index + ", " + value + ");";
+            case DOUBLE:
+                return "statement.setDouble(" + index + ", " + value + ");";
+            case CHAR:
+                return "statement.setString(" + index + ", String.valueOf(" + value + "));";
+            case ARRAY:
+                if (type.toString().equals("byte[]"))
+                    return "statement.setBytes(" + index + ", " + value + ");";
+                break;
+            default:
+                break;
+        }
+
+        String name = erasure(type);
+        if (name.equals("java.lang.String"))
+            return "statement.setString(" + index + ", " + value + ");";
+        if (isBoxed(name))
+            return "statement.setObject(" + index + ", " + value + ");";
+
+        // Anything else is written as text, just like the reflective mapping does
+        return "{ Object value = " + value + "; statement.setString(" + index + ", value == null ? null : value.toString()); }";
+    }
+
+    private String readExpression(TypeMirror type, String index) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "set.getBoolean(" + index + ")";
+            case BYTE:
+                return "set.getByte(" + index + ")";
+            case SHORT:
+                return "set.getShort(" + index + ")";
+            case INT:
+                return "set.getInt(" + index + ")";
+            case LONG:
+                return "set.getLong(" + index + ")";
+            case FLOAT:
+                return "set.getFloat(" + index + ")";
+            case DOUBLE:
+                return "set.getDouble(" + index + ")";
+            case CHAR:
+                return ROW_MAPPERS + ".readChar(set, " + index + ")";
+            case ARRAY:
+                if (type.toString().equals("byte[]"))
+                    return ROW_MAPPERS + ".readBytes(set, " + index + ")";
+                break;
+            default:
+                break;
+        }
+
+        String name = erasure(type);
+        switch (name) {
+            case "java.lang.String":
+                return "set.getString(" + index + ")";
+            case "java.lang.Boolean":
+                return ROW_MAPPERS + ".readBoolean(set, " + index + ")";
+            case "java.lang.Byte":
+                return ROW_MAPPERS + ".readByte(set, " + index + ")";
+            case "java.lang.Short":
+                return ROW_MAPPERS + ".readShort(set, " + index + ")";
+            case "java.lang.Integer":
+                return ROW_MAPPERS + ".readInteger(set, " + index + ")";
+            case "java.lang.Long":
+                return ROW_MAPPERS + ".readLong(set, " + index + ")";
+            case "java.lang.Float":
+                return ROW_MAPPERS + ".readFloat(set, " + index + ")";
+            case "java.lang.Double":
+                return ROW_MAPPERS + ".readDouble(set, " + index + ")";
+            case "java.util.UUID":
+                return ROW_MAPPERS + ".readUUID(set, " + index + ")";
+            case "java.lang.Object":
+                return "set.getObject(" + index + ")";
+            default:
+                break;
+        }
+
+        Element element = processingEnv.getTypeUtils().asElement(type);
+        if (element != null && element.getKind() == ElementKind.ENUM)
+            return ROW_MAPPERS + ".readEnum(set, " + index + ", " + name + ".class)";
+
+        // Everything else is converted exactly like the reflective mapping converts it
+        return ROW_MAPPERS + ".convert(set.getObject(" + index + "), " + name + ".class)";
+    }
+
+    private String defaultValue(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "false";
+            case BYTE:
+                return "(byte) 0";
+            case SHORT:
+                return "(short) 0";
+            case INT:
+                return "0";
+            case LONG:
+                return "0L";
+            case FLOAT:
+                return "0F";
+            case DOUBLE:
+                return "0D";
+            case CHAR:
+                return "'\\0'";
+            default:
+                return "(" + type + ") null";
+        }
+    }
+
+    private boolean isBoxed(String name) {
+        switch (name) {
+            case "java.lang.Boolean":
+            case "java.lang.Byte":
+            case "java.lang.Short":
+            case "java.lang.Integer":
+            case "java.lang.Long":
+            case "java.lang.Float":
+            case "java.lang.Double":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String columnName(Element element, String fallback) {
+        AnnotationMirror column = mirror(element, COLUMN);
+        return column == null ? fallback : annotationValue(column);
+    }
+
+    private String annotationValue(AnnotationMirror mirror) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value"))
+                return String.valueOf(entry.getValue().getValue());
+        }
+        return "";
+    }
+
+    private AnnotationMirror mirror(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotation))
+                return mirror;
+        }
+        return null;
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED)
+            return null;
+
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    private TypeElement enclosingType(Element element) {
+        Element current = element;
+        while (current != null && !(current instanceof TypeElement))
+            current = current.getEnclosingElement();
+        return (TypeElement) current;
+    }
+
+    private String flatName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element current = type.getEnclosingElement();
+        while (current instanceof TypeElement) {
+            name.insert(0, ((TypeElement) current).getSimpleName() + "_");
+            current = current.getEnclosingElement();
+        }
+        return name.toString();
+    }
+
+    private String listOf(List<String> values) {
+        if (values.isEmpty())
+            return "java.util.Collections.emptyList()";
+
+        StringBuilder list = new StringBuilder("java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0)
+                list.append(", ");
+            list.append('"').append(values.get(i).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return list.append("))").toString();
+    }
+
+    private void skip(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Not generating a RowMapper for " + type.getQualifiedName() + " because " + reason + "; it will be mapped with reflection", type);
+    }
+}
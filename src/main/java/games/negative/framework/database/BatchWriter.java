@@ -0,0 +1,161 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database;
+
+import games.negative.framework.database.builder.InsertBuilder;
+import games.negative.framework.util.ForceSavable;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers rows for a single table and inserts them in batches
+ * <p></p>
+ * <p>Rows are sent through {@link Database#insertBatch(String, List, int)} whenever</p>
+ * <p>{@code batchSize} rows are buffered, and when the writer is flushed or closed.</p>
+ * <p></p>
+ * <pre>
+ *     try (BatchWriter writer = db.batchWriter("players")) {
+ *         for (PlayerData data : dirty)
+ *             writer.add(data);
+ *     }
+ * </pre>
+ */
+public class BatchWriter implements AutoCloseable, ForceSavable {
+
+    private final Database database;
+    @Getter
+    private final String table;
+    @Getter
+    private final int batchSize;
+
+    private final List<Map<String, ?>> pending = new ArrayList<>();
+    private long insertedCount;
+
+    BatchWriter(@NotNull Database database, @NotNull String table, int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+
+        this.database = database;
+        this.table = table;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Buffer a row
+     *
+     * @param values A map of keys, and values
+     * @return This writer
+     * @throws SQLException if the buffer was full and flushing it failed
+     */
+    public synchronized BatchWriter add(@NotNull Map<String, ?> values) throws SQLException {
+        pending.add(values);
+        if (pending.size() >= batchSize)
+            flush();
+        return this;
+    }
+
+    /**
+     * Buffer a row
+     *
+     * @param builder The builder you'd like to insert, which must target this writer's table
+     * @return This writer
+     * @throws SQLException if the buffer was full and flushing it failed
+     */
+    public BatchWriter add(@NotNull InsertBuilder builder) throws SQLException {
+        if (!table.equals(builder.getTable()))
+            throw new IllegalArgumentException("This writer writes to table " + table + ", not " + builder.getTable());
+        return add(builder.getTypedValues());
+    }
+
+    /**
+     * Buffer a {@code Java Object}
+     *
+     * @param object The object you'd like to insert
+     * @return This writer
+     * @throws SQLException if the buffer was full and flushing it failed
+     */
+    public BatchWriter add(@NotNull Object object) throws SQLException {
+        Map<String, Object> values = database.toValues(object);
+        return add(values);
+    }
+
+    /**
+     * Send every buffered row
+     *
+     * @return The amount of inserted rows
+     * @throws SQLException if there is an error communicating with the database
+     */
+    public synchronized int flush() throws SQLException {
+        if (pending.isEmpty())
+            return 0;
+
+        // Rows stay buffered until the batch went through, so a failed flush can be retried
+        int total = 0;
+        for (int count : database.insertBatch(table, pending, batchSize))
+            total += count;
+
+        pending.clear();
+        insertedCount += total;
+        return total;
+    }
+
+    /**
+     * Get the amount of rows buffered but not sent yet
+     *
+     * @return The amount of buffered rows
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Get the amount of rows this writer inserted since it was created
+     *
+     * @return The amount of inserted rows
+     */
+    public synchronized long getInsertedCount() {
+        return insertedCount;
+    }
+
+    @Override
+    @SneakyThrows
+    public void forceSave() {
+        flush();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+    }
+}
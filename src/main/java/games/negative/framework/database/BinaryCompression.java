@@ -0,0 +1,142 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses binary column values with Deflate
+ * <p></p>
+ * <p>A compressed value starts with a 4 byte marker and its uncompressed length,</p>
+ * <p>so {@link #decompress(byte[])} can tell compressed values from raw ones and</p>
+ * <p>returns raw values unchanged. Columns may therefore hold both, such as rows</p>
+ * <p>written before compression was turned on with {@link Database#setCompressionThreshold(int)}.</p>
+ */
+@UtilityClass
+public class BinaryCompression {
+
+    private static final byte[] MARKER = {0, 'N', 'G', 'Z'};
+    private static final int HEADER = MARKER.length + Integer.BYTES;
+
+    /**
+     * Compress a value
+     * <p></p>
+     * <p>The value is returned unchanged if it's already compressed,</p>
+     * <p>or if compressing it wouldn't make it smaller.</p>
+     *
+     * @param data  The value
+     * @param level The Deflate level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+     * @return The compressed value
+     */
+    @NotNull
+    public byte[] compress(@NotNull byte[] data, int level) {
+        if (isCompressed(data))
+            return data;
+
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            output.write(MARKER, 0, MARKER.length);
+            output.write(ByteBuffer.allocate(Integer.BYTES).putInt(data.length).array(), 0, Integer.BYTES);
+
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                output.write(buffer, 0, length);
+                if (output.size() >= data.length)
+                    return data;
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompress a value if it was compressed
+     *
+     * @param data The value
+     * @return The decompressed value, or the value itself if it wasn't compressed
+     */
+    @NotNull
+    public byte[] decompress(@NotNull byte[] data) {
+        if (!isCompressed(data))
+            return data;
+
+        // Deflate can't shrink data by more than about 1032 times, so anything claiming more isn't compressed
+        int length = ByteBuffer.wrap(data, MARKER.length, Integer.BYTES).getInt();
+        if (length < 0 || length / 1032 > data.length)
+            return data;
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, HEADER, data.length - HEADER);
+            byte[] result = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int inflated = inflater.inflate(result, read, length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    return data;
+                read += inflated;
+            }
+
+            // A raw value which happens to start with the marker won't inflate to its stated length
+            return read == length && inflater.finished() ? result : data;
+        } catch (DataFormatException e) {
+            return data;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Check if a value starts with the compression marker
+     *
+     * @param data The value
+     * @return Whether the value looks compressed
+     */
+    public boolean isCompressed(@NotNull byte[] data) {
+        if (data.length < HEADER)
+            return false;
+        for (int i = 0; i < MARKER.length; i++) {
+            if (data[i] != MARKER[i])
+                return false;
+        }
+        return true;
+    }
+}
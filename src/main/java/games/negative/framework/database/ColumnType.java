@@ -41,7 +41,9 @@ package games.negative.framework.database;
  * <p>{@code LONG} represents a {@link Long}</p>
  * <p>{@code BYTE} represents a {@link Byte}</p>
  * <p>{@code TINYINT} represents a smaller {@link Integer}</p>
- * <p>{@code BLOB} represents a {@link java.sql.Blob}</p>
+ * <p>{@code BLOB} represents a {@code byte[]} of up to its length, which picks the smallest blob type that fits on MySQL</p>
+ * <p>{@code BINARY} represents a fixed length {@code byte[]}, such as a {@link java.util.UUID} with a length of 16</p>
+ * <p>{@code VARBINARY} represents a {@code byte[]} of up to its length, stored inline in the row</p>
  */
 public enum ColumnType {
 
@@ -55,6 +57,8 @@ public enum ColumnType {
     BYTE,
     DECIMAL,
     BLOB,
-    TINYINT
+    TINYINT,
+    BINARY,
+    VARBINARY
 
 }
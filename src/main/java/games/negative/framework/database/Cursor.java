@@ -0,0 +1,194 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database;
+
+import games.negative.framework.database.exception.UncheckedSQLException;
+import games.negative.framework.database.function.SQLFunction;
+import games.negative.framework.database.pool.PooledConnection;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the rows of a query one at a time
+ * <p></p>
+ * <p>Rows are fetched from the database as the cursor is iterated instead of being</p>
+ * <p>loaded into memory up front, so iterating a table of any size uses constant heap.</p>
+ * <p>On MySQL the driver's streaming mode is used; other drivers fetch {@link Database#getFetchSize()}</p>
+ * <p>rows per round trip.</p>
+ * <p></p>
+ * <p>A cursor opened inside a transaction shares the transaction's connection, which MySQL</p>
+ * <p>can't use for anything else while it streams. Those cursors fetch {@link Database#getFetchSize()}</p>
+ * <p>rows per round trip on every driver, and MySQL buffers their whole result instead.</p>
+ * <p></p>
+ * <p>A cursor holds its connection until it's closed, which happens automatically</p>
+ * <p>once the last row was read, and should be ensured with try-with-resources:</p>
+ * <pre>
+ *     try (Cursor&lt;PlayerData&gt; cursor = db.cursor("players", PlayerData.class)) {
+ *         while (cursor.hasNext())
+ *             process(cursor.next());
+ *     }
+ *
+ *     try (Stream&lt;PlayerData&gt; players = db.stream("players", PlayerData.class)) {
+ *         long rich = players.filter(data -&gt; data.getCoins() &gt; 1000).count();
+ *     }
+ * </pre>
+ * <p>Iterating throws an {@link UncheckedSQLException} if a row could not be read.</p>
+ *
+ * @param <T> The type each row is read into
+ */
+public class Cursor<T> implements Iterator<T>, AutoCloseable {
+
+    @Nullable
+    private final PooledConnection lease;
+    private final Statement statement;
+    private final ResultSet set;
+    private final SQLFunction<ResultSet, T> reader;
+    @Nullable
+    private final LongConsumer onClose;
+
+    private Boolean hasRow;
+    @Getter
+    private boolean closed;
+    @Getter
+    private long rowsRead;
+
+    Cursor(@Nullable PooledConnection lease, @NotNull Statement statement, @NotNull ResultSet set, @NotNull SQLFunction<ResultSet, T> reader, @Nullable LongConsumer onClose) {
+        this.lease = lease;
+        this.statement = statement;
+        this.set = set;
+        this.reader = reader;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Get the column metadata of the results
+     *
+     * @return The metadata
+     * @throws SQLException if the metadata could not be read
+     */
+    @NotNull
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return set.getMetaData();
+    }
+
+    /**
+     * Check if there's another row, fetching it from the database if needed
+     *
+     * @return Whether there's another row
+     * @throws UncheckedSQLException if there is an error communicating with the database
+     */
+    @Override
+    public boolean hasNext() throws UncheckedSQLException {
+        if (closed)
+            return false;
+
+        if (hasRow == null) {
+            try {
+                hasRow = set.next();
+            } catch (SQLException e) {
+                throw new UncheckedSQLException("Could not fetch the next row", e);
+            }
+
+            // Gives the connection back as soon as the last row was read
+            if (!hasRow)
+                close();
+        }
+        return hasRow;
+    }
+
+    /**
+     * Read the next row
+     *
+     * @return The row
+     * @throws NoSuchElementException if there are no more rows
+     * @throws UncheckedSQLException  if the row could not be read
+     */
+    @Override
+    public T next() throws NoSuchElementException, UncheckedSQLException {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        hasRow = null;
+        rowsRead++;
+        try {
+            return reader.apply(set);
+        } catch (SQLException e) {
+            throw new UncheckedSQLException("Could not read row " + rowsRead, e);
+        }
+    }
+
+    /**
+     * Get the remaining rows as a sequential {@link Stream} which closes this cursor when it's closed
+     *
+     * @return The stream
+     */
+    @NotNull
+    public Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * Close the result set and statement, and give the connection back to its pool
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+
+        try {
+            set.close();
+        } catch (SQLException ignored) {
+        }
+
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+
+        if (lease != null)
+            lease.close();
+
+        if (onClose != null)
+            onClose.accept(rowsRead);
+    }
+}
@@ -27,12 +27,31 @@
 
 package games.negative.framework.database;
 
-import games.negative.framework.database.annotation.DontSave;
-import games.negative.framework.database.annotation.constructor.DatabaseConstructor;
 import games.negative.framework.database.builder.InsertBuilder;
 import games.negative.framework.database.builder.LoginBuilder;
 import games.negative.framework.database.builder.TableBuilder;
+import games.negative.framework.database.builder.UpsertBuilder;
+import games.negative.framework.database.cache.RowCache;
 import games.negative.framework.database.builder.general.WhereBuilder;
+import games.negative.framework.database.csv.CsvReader;
+import games.negative.framework.database.csv.CsvSettings;
+import games.negative.framework.database.csv.CsvWriter;
+import games.negative.framework.database.exception.UncheckedSQLException;
+import games.negative.framework.database.function.SQLFunction;
+import games.negative.framework.database.function.SQLSupplier;
+import games.negative.framework.database.mapping.ObjectMapping;
+import games.negative.framework.database.mapping.RowMapper;
+import games.negative.framework.database.mapping.RowMappers;
+import games.negative.framework.database.metrics.QueryMetrics;
+import games.negative.framework.database.migration.MigrationRunner;
+import games.negative.framework.database.metrics.QueryTimer;
+import games.negative.framework.database.pool.ConnectionFactory;
+import games.negative.framework.database.pool.ConnectionPool;
+import games.negative.framework.database.pool.PoolSettings;
+import games.negative.framework.database.pool.PooledConnection;
+import games.negative.framework.database.pool.ReplicaSet;
+import games.negative.framework.database.pool.ReplicaSettings;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.SneakyThrows;
@@ -40,19 +59,35 @@ import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Parameter;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.HashSet;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
 
 /**
  * <p>A way to interact with databases easier than JDBC.</p>
@@ -68,6 +103,13 @@ import java.util.logging.Level;
  * </pre>
  *
  * <p>This will connect to the database for you.</p>
+ * <p>Values are bound with the setter matching their type, so numbers stay numbers.</p>
+ * <p>A {@link UUID} is stored as 16 bytes in a {@link ColumnType#BINARY} column and as text otherwise.</p>
+ * <p>Byte arrays, such as {@link games.negative.framework.util.serializer.BukkitSerializer#itemStackArrayToBytes(org.bukkit.inventory.ItemStack[])},</p>
+ * <p>are stored as they are in {@link ColumnType#BLOB} and {@link ColumnType#VARBINARY} columns,</p>
+ * <p>and compressed once they're longer than {@link #setCompressionThreshold(int)}.</p>
+ * <p>Every operation leases its own connection from a bounded {@link ConnectionPool},</p>
+ * <p>which can be tuned with {@link #setPoolSettings(PoolSettings)} before connecting.</p>
  * <p></p>
  * <p>{@code Creating a TableBuilder}</p>
  * <p>To create a table, you have to do this:</p>
@@ -80,8 +122,9 @@ import java.util.logging.Level;
  * <p>{@code Inserting into a table}</p>
  * <p>To insert into a table, you have to do this:</p>
  * <pre>
- *     HashMap<String, String> values = new HashMap<>();
+ *     HashMap<String, Object> values = new HashMap<>();
  *     values.put("columnName", "value");
+ *     values.put("otherColumn", 5);
  *     db.insert("tableName", "columnName", values);
  * </pre>
  * <p></p>
@@ -91,6 +134,27 @@ import java.util.logging.Level;
  *     db.disconnect();
  * </pre>
  * <p></p>
+ * <p>{@code Reading big tables}</p>
+ * <p>To read every row of a table without loading it into memory, you have to do this:</p>
+ * <pre>
+ *     try (Cursor&lt;PlayerData&gt; cursor = db.cursor("tableName", PlayerData.class)) {
+ *         cursor.forEachRemaining(data -&gt; ...);
+ *     }
+ * </pre>
+ * <p></p>
+ * <p>{@code Metrics}</p>
+ * <p>Every query is timed and counted per operation and per table, and queries slower than</p>
+ * <p>the slow query threshold are logged. Read the statistics with:</p>
+ * <pre>
+ *     MetricsSnapshot snapshot = db.getQueryMetrics().snapshot();
+ * </pre>
+ * <p></p>
+ * <p>{@code Caching rows}</p>
+ * <p>To keep rows read by key in memory, dropping them when they're written to, you have to do this:</p>
+ * <pre>
+ *     db.setRowCache(new RowCache(new RowCacheSettings()));
+ * </pre>
+ * <p></p>
  * <p>{@code Inserting Java Objects}</p>
  * <p>To insert Java objects into a table, you have to do this:</p>
  * <pre>
@@ -105,7 +169,6 @@ import java.util.logging.Level;
 public class Database {
 
     private boolean debug;
-    private boolean inTransaction;
 
     private String ip;
     private int port;
@@ -114,7 +177,81 @@ public class Database {
     private String databaseName;
     private File sqlLiteFile;
 
-    private Connection connection;
+    private PoolSettings poolSettings = new PoolSettings();
+    private ConnectionPool pool;
+
+    private SQLiteSettings sqliteSettings = new SQLiteSettings();
+    private ConnectionPool readPool;
+
+    private ReplicaSettings replicaSettings = new ReplicaSettings();
+
+    /**
+     * The read replicas reads are routed to, or null if there are none
+     */
+    @Nullable
+    @Setter(AccessLevel.NONE)
+    private ReplicaSet replicas;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, ConnectionFactory> replicaFactories = new LinkedHashMap<>();
+
+    private TransactionSettings transactionSettings = new TransactionSettings();
+
+    /**
+     * The cache rows read by key are kept in, or null to always read from the database
+     */
+    @Nullable
+    private RowCache rowCache;
+
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+
+    /**
+     * The amount of rows a {@link Cursor} fetches per round trip, on drivers other than MySQL's
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * The most keys {@link #getMany(String, String, Collection, Class)} puts in one {@code IN} list
+     */
+    private int inListSize = 500;
+
+    /**
+     * The length from which byte arrays are compressed before they're written, or 0 to never compress
+     * <p></p>
+     * <p>Compressed values are decompressed when they're read, whether compression is still on or not.</p>
+     *
+     * @see BinaryCompression
+     */
+    private int compressionThreshold = 0;
+
+    /**
+     * The Deflate level values are compressed with
+     */
+    private int compressionLevel = Deflater.BEST_SPEED;
+
+    /**
+     * Whether the server takes a row alias in {@code ON DUPLICATE KEY UPDATE}, checked when connecting
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile boolean rowAlias;
+
+    @Getter(AccessLevel.NONE)
+    private final ThreadLocal<PooledConnection> transaction = new ThreadLocal<>();
+
+    @Getter(AccessLevel.NONE)
+    private final ThreadLocal<Transaction> activeTransaction = new ThreadLocal<>();
+
+    @Getter(AccessLevel.NONE)
+    private final ThreadLocal<List<Runnable>> pendingInvalidations = ThreadLocal.withInitial(ArrayList::new);
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Set<String>> binaryColumns = new ConcurrentHashMap<>();
+
+    /**
+     * The batch size used when none is given
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
 
     /**
      * Create a database instance with MySQL
@@ -140,6 +277,11 @@ public class Database {
     public Database(@NotNull LoginBuilder loginBuilder) {
         this(loginBuilder.getIp(), loginBuilder.getPort(), loginBuilder.getUsername(), loginBuilder.getPassword(), loginBuilder.getDatabase());
         Class.forName("com.mysql.cj.jdbc.Driver");
+
+        for (LoginBuilder.Host host : loginBuilder.getReplicas()) {
+            String url = mysqlUrl(host.getIp(), host.getPort());
+            addReplica(host.getIp() + ":" + host.getPort(), () -> DriverManager.getConnection(url, getUsername(), getPassword()));
+        }
     }
 
     /**
@@ -169,11 +311,19 @@ public class Database {
 
     /**
      * Creates a database instance with SQLite
+     * <p></p>
+     * <p>The connections are tuned with {@link #getSqliteSettings()}, which can be changed before connecting.</p>
+     * <p>By default the database runs in {@code WAL} mode with one writer and several read-only</p>
+     * <p>connections, so reads never wait behind a write.</p>
      *
      * @param file The file which you would like to use
      */
     public Database(File file) {
         setSqlLiteFile(file);
+
+        // SQLite only allows a single writer at a time
+        poolSettings.setMaximumPoolSize(1);
+        poolSettings.setMinimumIdle(1);
     }
 
     /**
@@ -183,26 +333,114 @@ public class Database {
     public void connect() {
         if (getSqlLiteFile() != null) {
             Class.forName("org.sqlite.JDBC");
-            connection = DriverManager.getConnection("jdbc:sqlite:" + getSqlLiteFile().getAbsolutePath());
+            String url = "jdbc:sqlite:" + getSqlLiteFile().getAbsolutePath();
+            pool = new ConnectionPool("SQLite", poolSettings, () -> openSQLite(url, false));
+
+            // Opens the writer first, which switches the file to the configured journal mode
+            pool.lease().close();
+
+            if (sqliteSettings.separateReaders()) {
+                PoolSettings readSettings = copyPoolSettings();
+                readSettings.setMaximumPoolSize(sqliteSettings.getReaders());
+                readSettings.setMinimumIdle(1);
+
+                readPool = new ConnectionPool("SQLite-Read", readSettings, () -> openSQLite(url, true));
+                readPool.lease().close();
+            }
+
+            connectReplicas();
+            if (debug)
+                log("Connected to SQLite database " + getSqlLiteFile().getName() + " in " + sqliteSettings.getJournalMode() + " mode");
             return;
         }
 
-        connection = DriverManager.getConnection(
-                "jdbc:mysql://" + getIp() + ":" + getPort() + "/" + getDatabaseName(),
-                getUsername(),
-                getPassword()
-        );
+        String url = mysqlUrl(getIp(), getPort());
+        pool = new ConnectionPool(getDatabaseName(), poolSettings, () -> DriverManager.getConnection(url, getUsername(), getPassword()));
+
+        // Opens the first connection straight away, so bad credentials fail here
+        try (PooledConnection connection = pool.lease()) {
+            rowAlias = supportsRowAlias(connection.getConnection().getMetaData());
+        }
 
+        connectReplicas();
         if (debug)
             log("Connected to database");
     }
 
+    /**
+     * Add a read replica, which must be added before connecting
+     * <p></p>
+     * <p>Once connected, reads outside a transaction are spread over the healthy replicas</p>
+     * <p>as configured by {@link #getReplicaSettings()}, while writes and transactions</p>
+     * <p>always use the primary. A read which fails because its replica went away</p>
+     * <p>is run again on the primary. Rows read into the {@link #getRowCache()} always</p>
+     * <p>come from the primary, so a lagging replica can't fill it with stale rows.</p>
+     * <p></p>
+     * <p>MySQL replicas are usually added through {@link LoginBuilder#replica(String, int)}.</p>
+     *
+     * @param name    The name of the replica
+     * @param factory The factory opening connections to the replica
+     */
+    public void addReplica(@NotNull String name, @NotNull ConnectionFactory factory) {
+        if (pool != null)
+            throw new IllegalStateException("Replicas must be added before connecting");
+        replicaFactories.put(name, factory);
+    }
+
+    /**
+     * Opens a pool for every replica and starts routing reads to them
+     */
+    private void connectReplicas() {
+        if (replicaFactories.isEmpty())
+            return;
+
+        List<ConnectionPool> pools = new ArrayList<>(replicaFactories.size());
+        for (Map.Entry<String, ConnectionFactory> replica : replicaFactories.entrySet())
+            pools.add(new ConnectionPool(replica.getKey(), copyPoolSettings(), replica.getValue()));
+
+        replicas = new ReplicaSet(pool, pools, replicaSettings);
+        if (debug)
+            log("Routing reads to " + pools.size() + " replica(s) by " + replicaSettings.getSelection());
+    }
+
+    /**
+     * Copies the pool settings, so other pools can be tuned without changing the primary's
+     *
+     * @return The copied settings
+     */
+    private PoolSettings copyPoolSettings() {
+        PoolSettings settings = new PoolSettings();
+        settings.setMaximumPoolSize(poolSettings.getMaximumPoolSize());
+        settings.setMinimumIdle(poolSettings.getMinimumIdle());
+        settings.setConnectionTimeout(poolSettings.getConnectionTimeout());
+        settings.setValidationTimeout(poolSettings.getValidationTimeout());
+        settings.setValidationBypass(poolSettings.getValidationBypass());
+        settings.setIdleTimeout(poolSettings.getIdleTimeout());
+        settings.setMaxLifetime(poolSettings.getMaxLifetime());
+        settings.setHousekeepingInterval(poolSettings.getHousekeepingInterval());
+        settings.setStatementCacheSize(poolSettings.getStatementCacheSize());
+        return settings;
+    }
+
+    private String mysqlUrl(String ip, int port) {
+        // Lets the driver send each JDBC batch as one multi-row statement
+        return "jdbc:mysql://" + ip + ":" + port + "/" + getDatabaseName() + "?rewriteBatchedStatements=true";
+    }
+
     /**
      * Disconnect from the database
      */
     @SneakyThrows
     public void disconnect() {
-        connection.close();
+        if (replicas != null) {
+            replicas.close();
+            replicas = null;
+        }
+        pool.close();
+        if (readPool != null) {
+            readPool.close();
+            readPool = null;
+        }
         if (debug)
             log("Disconnected from database");
     }
@@ -250,7 +488,7 @@ public class Database {
         if (debug)
             log("Creating table " + table.getName() + ": " + statement.toString());
 
-        new Statement(statement.toString(), connection).execute();
+        execute(statement.toString());
 
         table.getColumns().forEach(column -> {
             if (column.getDefaultValue() != null) {
@@ -261,10 +499,81 @@ public class Database {
                 }
             }
         });
+
+        for (Index index : table.getIndexes())
+            createIndex(table.getName(), index);
+    }
+
+    /**
+     * Creates a secondary index on a table
+     *
+     * @param table The table you'd like to index
+     * @param index The index you'd like to create
+     * @throws SQLException if there is an error communicating with the database
+     */
+    public void createIndex(@NotNull String table, @NotNull Index index) throws SQLException {
+        if (index.getColumns().isEmpty())
+            throw new IllegalStateException("There are no columns for index " + index.getName() + ".");
+
+        StringBuilder statement = new StringBuilder("CREATE ");
+        if (index.isUnique())
+            statement.append("UNIQUE ");
+
+        statement.append("INDEX `").append(index.getName()).append("` ON `").append(table).append("` (");
+        for (int i = 0; i < index.getColumns().size(); i++) {
+            if (i > 0)
+                statement.append(", ");
+            statement.append("`").append(index.getColumns().get(i)).append("`");
+        }
+        statement.append(");");
+
+        if (debug)
+            log("Creating index " + index.getName() + " on table " + table + ": " + statement);
+
+        execute(statement.toString());
+    }
+
+    /**
+     * Run schema statements, such as {@code CREATE TABLE} or {@code ALTER TABLE}, in a single batch
+     *
+     * @param statements The statements you'd like to run, in order
+     * @throws SQLException if a statement failed
+     */
+    public void execute(@NotNull List<String> statements) throws SQLException {
+        if (statements.isEmpty())
+            return;
+
+        if (debug)
+            log("Executing " + statements.size() + " statements: " + statements);
+
+        withConnection(connection -> measure("ddl", null, String.join("; ", statements), null, timer -> {
+            try (java.sql.Statement statement = connection.getConnection().createStatement()) {
+                for (String sql : statements)
+                    statement.addBatch(sql);
+                return statement.executeBatch();
+            }
+        }));
+
+        // The statements may have changed a table's columns
+        binaryColumns.clear();
+        invalidate(RowCache::invalidateAll);
+    }
+
+    /**
+     * Create a runner which migrates this database's schema
+     *
+     * @return The runner
+     * @see MigrationRunner
+     */
+    public MigrationRunner migrations() {
+        return new MigrationRunner(this);
     }
 
     /**
      * Start a transaction
+     * <p></p>
+     * <p>The transaction must be ended with {@link #commit()} or {@link #rollback()} on the same thread.</p>
+     * <p>{@link #inTransaction(SQLFunction)} does that automatically, and retries failed transactions.</p>
      *
      * @throws SQLException          if there is an error with the connection
      * @throws IllegalStateException if the connection is already in a transaction
@@ -273,8 +582,14 @@ public class Database {
         if (isInTransaction())
             throw new IllegalStateException("Transaction already started");
 
-        connection.setAutoCommit(false);
-        new Statement("START TRANSACTION", connection).execute();
+        PooledConnection lease = pool.lease();
+        try {
+            lease.getConnection().setAutoCommit(false);
+        } catch (SQLException e) {
+            lease.close();
+            throw e;
+        }
+        transaction.set(lease);
 
         if (debug)
             log("Started transaction");
@@ -289,7 +604,16 @@ public class Database {
     public void rollback() throws SQLException, IllegalStateException {
         if (!isInTransaction())
             throw new IllegalStateException("No transaction to rollback");
-        new Statement("ROLLBACK", connection).execute();
+
+        PooledConnection lease = transaction.get();
+        try {
+            lease.getConnection().rollback();
+        } finally {
+            transaction.remove();
+            activeTransaction.remove();
+            lease.close();
+            flushInvalidations();
+        }
 
         if (debug)
             log("Rolled back transaction");
@@ -297,6 +621,9 @@ public class Database {
 
     /**
      * Commit a transaction
+     * <p></p>
+     * <p>If a function which joined the transaction through {@link #inTransaction(SQLFunction)}</p>
+     * <p>called {@link Transaction#setRollbackOnly()}, it's rolled back instead.</p>
      *
      * @throws SQLException          if there is an error with the connection
      * @throws IllegalStateException if there is no transaction to commit
@@ -305,11 +632,139 @@ public class Database {
         if (!isInTransaction())
             throw new IllegalStateException("No transaction to commit");
 
-        new Statement("COMMIT", connection).execute();
-        connection.setAutoCommit(true);
+        PooledConnection lease = transaction.get();
+        Transaction joined = activeTransaction.get();
+        boolean rollbackOnly = joined != null && joined.isRollbackOnly();
+        try {
+            if (rollbackOnly)
+                lease.getConnection().rollback();
+            else
+                lease.getConnection().commit();
+        } finally {
+            transaction.remove();
+            activeTransaction.remove();
+            lease.close();
+            flushInvalidations();
+        }
 
         if (debug)
-            log("Committed transaction");
+            log(rollbackOnly ? "Rolled back transaction marked rollback-only" : "Committed transaction");
+    }
+
+    /**
+     * Check if the current thread has started a transaction
+     *
+     * @return Whether the current thread is in a transaction
+     */
+    public boolean isInTransaction() {
+        return transaction.get() != null;
+    }
+
+    /**
+     * Get the connection of the current thread's transaction
+     * <p></p>
+     * <p>The Database no longer holds a single connection, it leases one from its pool</p>
+     * <p>for every operation. Outside a transaction, lease a connection yourself and</p>
+     * <p>close it to hand it back:</p>
+     * <pre>
+     *     try (PooledConnection connection = db.getPool().lease()) {
+     *         connection.getConnection()...
+     *     }
+     * </pre>
+     *
+     * @return The connection pinned to the current thread's transaction
+     * @throws IllegalStateException if the current thread is not in a transaction
+     * @deprecated Use {@link ConnectionPool#lease()} through {@link #getPool()}
+     */
+    @Deprecated
+    public Connection getConnection() {
+        PooledConnection lease = transaction.get();
+        if (lease == null)
+            throw new IllegalStateException("Not in a transaction, lease a connection with getPool().lease() instead");
+        return lease.getConnection();
+    }
+
+    /**
+     * Run a function inside a transaction
+     * <p></p>
+     * <p>The transaction is committed once the function returns, and rolled back if it throws.</p>
+     * <p>If it fails on a deadlock or serialization failure, it's rolled back and retried.</p>
+     *
+     * @param function The function you'd like to run, which may run more than once
+     * @return The function's result
+     * @throws SQLException if the transaction failed and could not be retried
+     * @see #inTransaction(TransactionSettings, SQLFunction)
+     */
+    public <T> T inTransaction(@NotNull SQLFunction<Transaction, T> function) throws SQLException {
+        return inTransaction(transactionSettings, function);
+    }
+
+    /**
+     * Run a function inside a transaction at an isolation level
+     *
+     * @param isolation The isolation level you'd like the transaction to run at
+     * @param function  The function you'd like to run, which may run more than once
+     * @return The function's result
+     * @throws SQLException if the transaction failed and could not be retried
+     * @see #inTransaction(TransactionSettings, SQLFunction)
+     */
+    public <T> T inTransaction(@NotNull TransactionSettings.Isolation isolation, @NotNull SQLFunction<Transaction, T> function) throws SQLException {
+        TransactionSettings settings = new TransactionSettings();
+        settings.setIsolation(isolation);
+        settings.setMaxRetries(transactionSettings.getMaxRetries());
+        settings.setInitialBackoff(transactionSettings.getInitialBackoff());
+        settings.setMaxBackoff(transactionSettings.getMaxBackoff());
+        return inTransaction(settings, function);
+    }
+
+    /**
+     * Run a function inside a transaction
+     * <p></p>
+     * <p>A connection is leased for the whole transaction, and every operation the</p>
+     * <p>calling thread runs on this database until the function returns uses it.</p>
+     * <p>The transaction is committed once the function returns, and rolled back if it throws</p>
+     * <p>or called {@link Transaction#setRollbackOnly()}.</p>
+     * <p></p>
+     * <p>If the transaction fails on a deadlock, a serialization failure or a lock timeout,</p>
+     * <p>it's rolled back and the function runs again after a backoff, up to</p>
+     * <p>{@link TransactionSettings#getMaxRetries()} times.</p>
+     * <p></p>
+     * <p>If the calling thread is already in a transaction, the function joins it,</p>
+     * <p>and is neither committed nor retried on its own. It's given the outer transaction,</p>
+     * <p>so {@link Transaction#setRollbackOnly()} rolls back the outer transaction once it ends.</p>
+     * <p>A joined transaction keeps the outer one's isolation level, so joining with another</p>
+     * <p>level than {@code DEFAULT} or the one the outer transaction runs at is rejected.</p>
+     *
+     * @param settings The settings you'd like the transaction to run with
+     * @param function The function you'd like to run, which may run more than once
+     * @return The function's result
+     * @throws SQLException          if the transaction failed and could not be retried
+     * @throws IllegalStateException if the function would join a transaction at another isolation level
+     */
+    public <T> T inTransaction(@NotNull TransactionSettings settings, @NotNull SQLFunction<Transaction, T> function) throws SQLException, IllegalStateException {
+        PooledConnection pinned = transaction.get();
+        if (pinned != null)
+            return function.apply(joinTransaction(pinned, settings.getIsolation()));
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return runTransaction(settings, function, attempt);
+            } catch (SQLException e) {
+                if (attempt > settings.getMaxRetries() || !isRetryable(e))
+                    throw e;
+
+                long backoff = settings.backoff(attempt);
+                if (debug)
+                    log("Retrying transaction in " + backoff + "ms after attempt " + attempt + " failed: " + e.getMessage());
+
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
     }
 
     /**
@@ -332,20 +787,72 @@ public class Database {
      * @throws SQLException if there is an error retrieving the request value
      */
     @Nullable
-    public Object get(@NotNull String table, @NotNull String key, @NotNull String value, @NotNull String column) throws SQLException {
-        String statement = "SELECT * FROM `" + table + "`";
-        ResultSet set = new Statement(statement, connection).executeWithResults();
+    public Object get(@NotNull String table, @NotNull String key, @NotNull Object value, @NotNull String column) throws SQLException {
+        Map<String, Object> row = getRow(table, key, value, column);
+        return row == null ? null : row.get(column);
+    }
 
+    /**
+     * Get specific columns of a single row from the database
+     * <p></p>
+     * <p>Only the requested columns are selected, and the row is looked up</p>
+     * <p>with {@code WHERE key = ?} so an index on the key column can be used.</p>
+     * <p>If no columns are given, every column of the row is returned.</p>
+     *
+     * @param table   the table you'd like to pull from
+     * @param key     The key you'd like to check
+     * @param value   The value that you'd like to check
+     * @param columns The columns you'd like to get
+     * @return A map of column names to values, or null if no row matched
+     * @throws SQLException if there is an error retrieving the request value
+     */
+    @Nullable
+    public Map<String, Object> getRow(@NotNull String table, @NotNull String key, @NotNull Object value, @NotNull String... columns) throws SQLException {
         if (debug)
-            log("Getting " + column + " from " + table + " where " + key + " = " + value);
-
-        while (set.next()) {
-            if (set.getObject(key).equals(value))
-                return set.getObject(column);
+            log("Getting " + (columns.length == 0 ? "*" : String.join(", ", columns)) + " from " + table + " where " + key + " = " + value);
+
+        RowCache cache = rowCache;
+        Map<String, Object> row;
+        if (cache != null && !isInTransaction()) {
+            Map<String, Object> cached = cachedRow(cache, table, key, value);
+            row = cached == null ? null : project(cached, columns);
+            if (cached != null && row == null)
+                row = selectRow(false, table, key, value, columns);
+        } else {
+            row = selectRow(false, table, key, value, columns);
         }
-        if (debug)
+
+        if (row == null && debug)
             log("Getting value from table " + table + " failed");
-        return null;
+        return row;
+    }
+
+    /**
+     * Reads a row by key from the database
+     *
+     * @param primary Whether the row must be read from the primary rather than a replica
+     * @param table   The table
+     * @param key     The key column
+     * @param value   The key value
+     * @param columns The columns to read, or none for every column
+     * @return The row, or null if there is none
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private Map<String, Object> selectRow(boolean primary, String table, String key, Object value, String... columns) throws SQLException {
+        String statement = "SELECT " + selection(columns) + " FROM `" + table + "` WHERE `" + key + "` = ? LIMIT 1";
+        return withReadConnection(primary, connection -> {
+            PreparedStatement prepStatement = connection.prepare(statement);
+            bind(connection, prepStatement, 1, table, key, value);
+
+            return measure("select", table, statement, value, timer -> {
+                try (ResultSet set = prepStatement.executeQuery()) {
+                    if (!set.next())
+                        return null;
+                    timer.read(1);
+                    return readRow(set);
+                }
+            });
+        });
     }
 
     /**
@@ -356,57 +863,53 @@ public class Database {
      * @throws SQLException If there is an error
      */
     public boolean tableExists(@NotNull String tableName) throws SQLException {
-        DatabaseMetaData meta = connection.getMetaData();
-        ResultSet resultSet = meta.getTables(null, null, tableName, new String[]{"TABLE"});
+        return tableExists(false, tableName);
+    }
+
+    /**
+     * Check if a table exists
+     * <p></p>
+     * <p>Checking on the primary sees a table created moments ago, which a lagging replica may not have yet.</p>
+     *
+     * @param primary   Whether to check on the primary rather than a replica
+     * @param tableName The table you'd like to check
+     * @return A boolean if the table exists or not
+     * @throws SQLException If there is an error
+     */
+    public boolean tableExists(boolean primary, @NotNull String tableName) throws SQLException {
         if (debug)
             log("Checking if table exists: " + tableName);
-        return resultSet.next();
+
+        return withReadConnection(primary, connection -> {
+            DatabaseMetaData meta = connection.getConnection().getMetaData();
+            try (ResultSet resultSet = meta.getTables(null, null, tableName, new String[]{"TABLE"})) {
+                return resultSet.next();
+            }
+        });
     }
 
     /**
      * Insert into a database
      *
      * @param table  The table you'd like to insert to
-     * @param values A hashmap of keys, and values
+     * @param values A map of keys, and values
      * @throws SQLException if there is an error
      */
-    public void insert(@NotNull String table, @NotNull HashMap<String, String> values) throws SQLException {
-        StringBuilder statement = new StringBuilder("insert into `" + table + "` (\n\t");
-
-        ArrayList<String> keysArray = new ArrayList<>(values.keySet());
-        String lastKey = keysArray.get(keysArray.size() - 1);
-        for (String key : values.keySet()) {
-            if (!key.equals(lastKey))
-                statement.append(key).append(",");
-            else
-                statement.append(key).append("\n)\n\t");
-        }
-
-        statement.append(" values (\n\t");
-
-        ArrayList<String> valuesArray = new ArrayList<>(values.values());
-        String lastValue = valuesArray.get(valuesArray.size() - 1);
-        for (String value : values.values()) {
-            if (!value.equals(lastValue))
-                statement.append("?, ");
-            else
-                statement.append("?\n);");
-        }
-
-        if (debug)
-            Bukkit.getLogger().log(Level.INFO, String.valueOf(statement));
-
-        PreparedStatement prepStatement = connection.prepareStatement(statement.toString());
-        int i = 0;
-
-        for (String value : values.values()) {
-            i++;
-            prepStatement.setObject(i, value);
-        }
+    public void insert(@NotNull String table, @NotNull Map<String, ?> values) throws SQLException {
+        withConnection(connection -> insert(connection, table, values));
+    }
 
-        if (debug)
-            log("Inserting into table: " + table + " with values: " + values);
-        prepStatement.executeUpdate();
+    /**
+     * Insert into a database
+     *
+     * @param table  The table you'd like to insert to
+     * @param values A map of keys, and values
+     * @throws SQLException if there is an error
+     * @deprecated kept for plugins compiled against the text-only signature, use {@link #insert(String, Map)}
+     */
+    @Deprecated
+    public void insert(@NotNull String table, @NotNull HashMap<String, String> values) throws SQLException {
+        insert(table, (Map<String, ?>) values);
     }
 
     /**
@@ -416,87 +919,146 @@ public class Database {
      * @throws SQLException if there is an error
      */
     public void insert(@NotNull InsertBuilder builder) throws SQLException {
-        StringBuilder statement = new StringBuilder("insert into `" + builder.getTable() + "` (\n\t");
-
-        ArrayList<String> keysArray = new ArrayList<>(builder.getValues().keySet());
-        String lastKey = keysArray.get(keysArray.size() - 1);
-        for (String key : builder.getValues().keySet()) {
-            if (!key.equals(lastKey))
-                statement.append(key).append(",");
-            else
-                statement.append(key).append("\n)\n\t");
-        }
-
-        statement.append(" values (\n\t");
-
-        ArrayList<String> valuesArray = new ArrayList<>(builder.getValues().values());
-        String lastValue = valuesArray.get(valuesArray.size() - 1);
-        for (String value : builder.getValues().values()) {
-            if (!value.equals(lastValue))
-                statement.append("?, ");
-            else
-                statement.append("?\n);");
-        }
-
-        if (debug)
-            Bukkit.getLogger().log(Level.INFO, String.valueOf(statement));
-
-        PreparedStatement prepStatement = connection.prepareStatement(statement.toString());
-        int i = 0;
-
-        for (String value : builder.getValues().values()) {
-            i++;
-            prepStatement.setObject(i, value);
-        }
-
-        if (debug)
-            log("Inserting into table: " + builder.getTable() + " with values: " + builder.getValues());
-        prepStatement.executeUpdate();
+        insert(builder.getTable(), builder.getTypedValues());
     }
 
     /**
-     * Delete a row rom the database
+     * Insert a row, or overwrite the other columns of the row with the same key
+     * <p></p>
+     * <p>This is a single statement, {@code INSERT ... ON DUPLICATE KEY UPDATE} on MySQL and</p>
+     * <p>{@code INSERT ... ON CONFLICT DO UPDATE} on SQLite, so unlike checking {@link #rowExists(String, String, Object)}</p>
+     * <p>before inserting it takes one round trip and can't race another writer.</p>
+     * <p>The key column needs a primary key or unique index.</p>
      *
-     * @param table The table you'd like to edit
-     * @param key   The key, basically the identifier
-     * @param value The value, such as the player's name
+     * @param table  The table you'd like to write to
+     * @param key    The key column, whose value must be in the values
+     * @param values A map of columns, and values
+     * @throws SQLException if there is an error communicating with the database
      */
-    public void delete(@NotNull String table, @NotNull String key, @NotNull String value) throws SQLException {
-        String statement = "DELETE FROM '" + table + "' WHERE '" + key + "'='" + value + "'";
-        new Statement(statement, connection).execute();
-        if (debug)
-            log("Deleting from table: " + table + " with key: " + key + " and value: " + value);
+    public void upsert(@NotNull String table, @NotNull String key, @NotNull Map<String, ?> values) throws SQLException {
+        upsert(table, Collections.singletonList(key), values, Collections.emptySet());
     }
 
     /**
-     * Check if a row exists
+     * Insert a row, or update the row with the same key
      *
-     * @param table The table you'd like to check
-     * @param key   The key
-     * @param value The value
-     * @return whether that row exists
-     * @throws SQLException if there is an error connecting to the database
+     * @param builder The builder you'd like to use
+     * @throws SQLException if there is an error communicating with the database
+     * @see UpsertBuilder
      */
-    public boolean rowExists(@NotNull String table, @NotNull String key, @NotNull String value) throws SQLException {
-        String statement = "SELECT * FROM `" + table + "` WHERE '" + key + "'='" + value + "'";
-        if (debug)
-            log("Checking if row exists: " + statement);
-        return new Statement(statement, connection).executeWithResults().next();
+    public void upsert(@NotNull UpsertBuilder builder) throws SQLException {
+        upsert(builder.getTable(), builder.getKeys(), builder.getValues(), builder.getIncrements());
     }
 
     /**
-     * Check if a row exists
+     * Insert or update many rows, in batches of {@code batchSize} rows
+     * <p></p>
+     * <p>Every row must have the same columns. All batches are sent inside a single</p>
+     * <p>transaction unless the calling thread already started one.</p>
      *
-     * @param table   The table you'd like to check
-     * @param builder The builder you'd like to use
-     * @return whether that row exists
-     * @throws SQLException if there is an error connecting to the database
+     * @param table     The table you'd like to write to
+     * @param key       The key column, whose value must be in every row
+     * @param rows      The rows, each a map of columns, and values
+     * @param batchSize The maximum amount of rows sent per batch
+     * @return The driver's update count for every batch, in the order they were sent
+     * @throws SQLException             if there is an error communicating with the database
+     * @throws IllegalArgumentException if the batch size isn't positive, or the rows have different columns
+     * @see #upsert(String, String, Map)
      */
-    public boolean rowExists(@NotNull String table, @NotNull WhereBuilder builder) throws SQLException {
-        String statement = "SELECT * FROM `" + table + "` WHERE '" + builder.getKey() + "'='" + builder.getValue() + "'";
-        if (debug)
-            log("Checking if row exists: " + statement);
-        return new Statement(statement, connection).executeWithResults().next();
+    public int[] upsertBatch(@NotNull String table, @NotNull String key, @NotNull List<? extends Map<String, ?>> rows, int batchSize) throws SQLException, IllegalArgumentException {
+        return upsertBatch(table, Collections.singletonList(key), Collections.emptySet(), rows, batchSize);
+    }
+
+    /**
+     * Insert or update many rows, in batches of {@link #DEFAULT_BATCH_SIZE} rows
+     *
+     * @param table The table you'd like to write to
+     * @param key   The key column, whose value must be in every row
+     * @param rows  The rows, each a map of columns, and values
+     * @return The driver's update count for every batch, in the order they were sent
+     * @throws SQLException if there is an error communicating with the database
+     * @see #upsertBatch(String, String, List, int)
+     */
+    public int[] upsertBatch(@NotNull String table, @NotNull String key, @NotNull List<? extends Map<String, ?>> rows) throws SQLException {
+        return upsertBatch(table, key, rows, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Insert or update many builders, in batches of {@code batchSize} rows
+     * <p></p>
+     * <p>Every builder must target the same table with the same columns, keys and increments.</p>
+     *
+     * @param builders  The builders you'd like to write
+     * @param batchSize The maximum amount of rows sent per batch
+     * @return The driver's update count for every batch, in the order they were sent
+     * @throws SQLException             if there is an error communicating with the database
+     * @throws IllegalArgumentException if the batch size isn't positive, or the builders differ
+     */
+    public int[] upsertBatch(@NotNull Collection<UpsertBuilder> builders, int batchSize) throws SQLException, IllegalArgumentException {
+        if (builders.isEmpty())
+            return new int[0];
+
+        UpsertBuilder first = builders.iterator().next();
+        List<Map<String, Object>> rows = new ArrayList<>(builders.size());
+        for (UpsertBuilder builder : builders) {
+            if (!first.getTable().equals(builder.getTable()) || !first.getKeys().equals(builder.getKeys()) || !first.getIncrements().equals(builder.getIncrements()))
+                throw new IllegalArgumentException("Every builder in a batch upsert must target table " + first.getTable() + " with keys " + first.getKeys() + " and increments " + first.getIncrements());
+            rows.add(builder.getValues());
+        }
+
+        return upsertBatch(first.getTable(), first.getKeys(), first.getIncrements(), rows, batchSize);
+    }
+
+    /**
+     * Insert or update many builders, in batches of {@link #DEFAULT_BATCH_SIZE} rows
+     *
+     * @param builders The builders you'd like to write
+     * @return The driver's update count for every batch, in the order they were sent
+     * @throws SQLException if there is an error communicating with the database
+     * @see #upsertBatch(Collection, int)
+     */
+    public int[] upsertBatch(@NotNull Collection<UpsertBuilder> builders) throws SQLException {
+        return upsertBatch(builders, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Delete a row rom the database
+     *
+     * @param table The table you'd like to edit
+     * @param key   The key, basically the identifier
+     * @param value The value, such as the player's name
+     */
+    public void delete(@NotNull String table, @NotNull String key, @NotNull Object value) throws SQLException {
+        withConnection(connection -> delete(connection, table, key, value));
+    }
+
+    /**
+     * Check if a row exists
+     *
+     * @param table The table you'd like to check
+     * @param key   The key
+     * @param value The value
+     * @return whether that row exists
+     * @throws SQLException if there is an error connecting to the database
+     */
+    public boolean rowExists(@NotNull String table, @NotNull String key, @NotNull Object value) throws SQLException {
+        RowCache cache = rowCache;
+        if (cache != null && !isInTransaction() && cache.get(table, key, value) != null)
+            return true;
+
+        return withReadConnection(connection -> rowExists(connection, table, key, value));
+    }
+
+    /**
+     * Check if a row exists
+     *
+     * @param table   The table you'd like to check
+     * @param builder The builder you'd like to use
+     * @return whether that row exists
+     * @throws SQLException if there is an error connecting to the database
+     */
+    public boolean rowExists(@NotNull String table, @NotNull WhereBuilder builder) throws SQLException {
+        return rowExists(table, builder.getKey(), builder.getTypedValue());
     }
 
     /**
@@ -508,14 +1070,17 @@ public class Database {
      * @param values the values of the new row you'd like to insert
      * @throws SQLException If there's an error communicating with the database
      */
-    public void replace(@NotNull String table, @NotNull String key, @NotNull String value, @NotNull HashMap<String, String> values) throws SQLException {
-        if (!rowExists(table, key, value)) return;
+    public void replace(@NotNull String table, @NotNull String key, @NotNull Object value, @NotNull Map<String, ?> values) throws SQLException {
+        withConnection(connection -> {
+            if (!rowExists(connection, table, key, value)) return null;
 
-        if (debug)
-            log("Replacing row in table: " + table + " with key: " + key + " and value: " + value);
+            if (debug)
+                log("Replacing row in table: " + table + " with key: " + key + " and value: " + value);
 
-        delete(table, key, value);
-        insert(table, values);
+            delete(connection, table, key, value);
+            insert(connection, table, values);
+            return null;
+        });
     }
 
     /**
@@ -526,14 +1091,8 @@ public class Database {
      * @param values       the values of the new row you'd like to insert
      * @throws SQLException If there's an error communicating with the database
      */
-    public void replace(@NotNull String table, @NotNull WhereBuilder whereBuilder, @NotNull HashMap<String, String> values) throws SQLException {
-        if (!rowExists(table, whereBuilder.getKey(), whereBuilder.getValue())) return;
-
-        if (debug)
-            log("Replacing row in table: " + table + " with key: " + whereBuilder.getKey() + " and value: " + whereBuilder.getValue());
-
-        delete(table, whereBuilder.getKey(), whereBuilder.getValue());
-        insert(table, values);
+    public void replace(@NotNull String table, @NotNull WhereBuilder whereBuilder, @NotNull Map<String, ?> values) throws SQLException {
+        replace(table, whereBuilder.getKey(), whereBuilder.getTypedValue(), values);
     }
 
     /**
@@ -543,10 +1102,10 @@ public class Database {
      * @throws SQLException if there is an error communicating with the database
      */
     public void deleteTable(@NotNull String name) throws SQLException {
-        if (!tableExists(name)) return;
+        if (!tableExists(true, name)) return;
         if (debug)
             log("Deleteing table: " + name);
-        new Statement("DROP TABLE " + name + ";", connection).execute();
+        execute("DROP TABLE " + name + ";");
     }
 
     /**
@@ -558,11 +1117,91 @@ public class Database {
      * @param newColumn    The new value you'd like to insert
      * @throws SQLException if there is an error communicating with the database
      */
-    public void update(@NotNull String table, @NotNull WhereBuilder whereBuilder, @NotNull String column, @NotNull String newColumn) throws SQLException {
-        String statement = "UPDATE `" + table + "` SET `" + column + "`=`" + newColumn + "` WHERE `" + whereBuilder.getKey() + "`='" + whereBuilder.getValue() + "'";
+    public void update(@NotNull String table, @NotNull WhereBuilder whereBuilder, @NotNull String column, @Nullable Object newColumn) throws SQLException {
+        String statement = "UPDATE `" + table + "` SET `" + column + "` = ? WHERE `" + whereBuilder.getKey() + "` = ?";
+        if (debug)
+            log("Updating row with table: " + table + " with key: " + whereBuilder.getKey() + " and value: " + whereBuilder.getTypedValue() + " with column: " + column + " and new value: " + newColumn);
+
+        withConnection(connection -> {
+            PreparedStatement prepStatement = connection.prepare(statement);
+            bind(connection, prepStatement, 1, table, column, newColumn);
+            bind(connection, prepStatement, 2, table, whereBuilder.getKey(), whereBuilder.getTypedValue());
+            return measure("update", table, statement, new Object[]{newColumn, whereBuilder.getTypedValue()}, timer -> {
+                int updated = prepStatement.executeUpdate();
+                timer.wrote(updated);
+                return updated;
+            });
+        });
+        invalidate(cache -> cache.invalidate(table, whereBuilder.getKey(), whereBuilder.getTypedValue()));
+    }
+
+    /**
+     * Update several columns of a row in one statement, leaving the other columns as they are
+     *
+     * @param table        The table you'd like to update
+     * @param whereBuilder The where builder identifying the row
+     * @param values       A map of the columns you'd like to update, and their new values
+     * @throws SQLException if there is an error communicating with the database
+     */
+    public void update(@NotNull String table, @NotNull WhereBuilder whereBuilder, @NotNull Map<String, ?> values) throws SQLException {
+        if (values.isEmpty())
+            return;
+
+        List<String> columns = new ArrayList<>(values.keySet());
+        StringBuilder statement = new StringBuilder("UPDATE `" + table + "` SET ");
+        for (int i = 0; i < columns.size(); i++)
+            statement.append(i > 0 ? ", " : "").append("`").append(columns.get(i)).append("` = ?");
+        statement.append(" WHERE `").append(whereBuilder.getKey()).append("` = ?");
+
+        if (debug)
+            log("Updating row with table: " + table + " with key: " + whereBuilder.getKey() + " and value: " + whereBuilder.getTypedValue() + " with values: " + values);
+
+        withConnection(connection -> {
+            PreparedStatement prepStatement = connection.prepare(statement.toString());
+            for (int i = 0; i < columns.size(); i++)
+                bind(connection, prepStatement, i + 1, table, columns.get(i), values.get(columns.get(i)));
+            bind(connection, prepStatement, columns.size() + 1, table, whereBuilder.getKey(), whereBuilder.getTypedValue());
+
+            return measure("update", table, statement.toString(), values.values(), timer -> {
+                int updated = prepStatement.executeUpdate();
+                timer.wrote(updated);
+                return updated;
+            });
+        });
+        invalidate(cache -> cache.invalidate(table, whereBuilder.getKey(), whereBuilder.getTypedValue()));
+    }
+
+    /**
+     * Add an amount onto a column of a row in one statement
+     * <p></p>
+     * <p>The addition happens in the database, so concurrent increments never overwrite</p>
+     * <p>each other. A null value is treated as 0.</p>
+     *
+     * @param table        The table you'd like to update
+     * @param whereBuilder The where builder identifying the row
+     * @param column       The column you'd like to increment
+     * @param amount       The amount, which may be negative
+     * @return Whether a row was updated
+     * @throws SQLException if there is an error communicating with the database
+     * @see UpsertBuilder#increment(String, Number) to create the row if it doesn't exist
+     */
+    public boolean increment(@NotNull String table, @NotNull WhereBuilder whereBuilder, @NotNull String column, @NotNull Number amount) throws SQLException {
+        String statement = "UPDATE `" + table + "` SET `" + column + "` = coalesce(`" + column + "`, 0) + ? WHERE `" + whereBuilder.getKey() + "` = ?";
         if (debug)
-            log("Updating row with table: " + table + " with key: " + whereBuilder.getKey() + " and value: " + whereBuilder.getValue() + " with column: " + column + " and new value: " + newColumn);
-        new Statement(statement, connection).execute();
+            log("Incrementing column: " + column + " in table: " + table + " with key: " + whereBuilder.getKey() + " and value: " + whereBuilder.getTypedValue() + " by: " + amount);
+
+        boolean updated = withConnection(connection -> {
+            PreparedStatement prepStatement = connection.prepare(statement);
+            bind(connection, prepStatement, 1, table, column, amount);
+            bind(connection, prepStatement, 2, table, whereBuilder.getKey(), whereBuilder.getTypedValue());
+            return measure("update", table, statement, new Object[]{amount, whereBuilder.getTypedValue()}, timer -> {
+                int count = prepStatement.executeUpdate();
+                timer.wrote(count);
+                return count > 0;
+            });
+        });
+        invalidate(cache -> cache.invalidate(table, whereBuilder.getKey(), whereBuilder.getTypedValue()));
+        return updated;
     }
 
 
@@ -578,7 +1217,7 @@ public class Database {
         String statement = "ALTER TABLE `" + table + "` ADD `" + column + "` " + type + ";";
         if (debug)
             log("Adding column to table: " + table + " with name: " + column + " and type: " + type);
-        new Statement(statement, connection).execute();
+        execute(statement);
     }
 
     /**
@@ -592,7 +1231,7 @@ public class Database {
         String statement = "ALTER TABLE `" + table + "` DROP COLUMN `" + column + "`;";
         if (debug)
             log("Removing column: " + column + " from table: " + table);
-        new Statement(statement, connection).execute();
+        execute(statement);
     }
 
     /**
@@ -607,7 +1246,7 @@ public class Database {
         String statement = "ALTER TABLE `" + table + "` CHANGE `" + oldName + "` `" + newName + "`;";
         if (debug)
             log("Changing column name: " + oldName + " to " + newName + " in table: " + table);
-        new Statement(statement, connection).execute();
+        execute(statement);
     }
 
     /**
@@ -621,49 +1260,218 @@ public class Database {
         String statement = "ALTER TABLE `" + table + "` DROP COLUMN `" + column + "`;";
         if (debug)
             log("Deleteing column: " + column + " from table: " + table);
-        new Statement(statement, connection).execute();
+        execute(statement);
     }
 
     /**
      * Export a table to a file
+     * <p></p>
+     * <p>The file is written without a header line, like it always was.</p>
      *
      * @param table    The table you'd like to export
      * @param filePath The file's path you'd like to export to
      * @throws SQLException if there is an error communicating with the database
+     * @see #exportCSV(String, Path, CsvSettings)
      */
     public void exportToCSV(String table, String filePath) throws SQLException {
-        String statement = "SELECT * FROM `" + table + "`";
-        if (debug)
-            log("Exporting table: " + table + " to file: " + filePath);
-        ResultSet resultSet = new Statement(statement, connection).executeWithResults();
         try {
-            FileWriter writer = new FileWriter(filePath);
-            while (resultSet.next()) {
-                for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
-                    writer.write(resultSet.getString(i));
-                    if (i != resultSet.getMetaData().getColumnCount())
-                        writer.write(",");
+            exportCSV(table, Paths.get(filePath), headerlessCsv());
+        } catch (IOException e) {
+            throw new SQLException("Could not export table " + table + " to " + filePath, e);
+        }
+    }
+
+    /**
+     * Export a table to a CSV file, streaming its rows
+     * <p></p>
+     * <p>Rows are read through a {@link Cursor} and written through a buffered</p>
+     * <p>file channel, so tables of any size are exported with constant memory.</p>
+     * <p>Values are quoted and escaped where needed, and binary values are written as Base64.</p>
+     *
+     * @param table    The table you'd like to export
+     * @param path     The file you'd like to export to, which is replaced if it exists
+     * @param settings The format of the file
+     * @return The amount of exported rows
+     * @throws SQLException if there is an error communicating with the database
+     * @throws IOException  if there is an error writing the file
+     */
+    public long exportCSV(@NotNull String table, @NotNull Path path, @NotNull CsvSettings settings) throws SQLException, IOException {
+        if (debug)
+            log("Exporting table: " + table + " to file: " + path);
+
+        LongConsumer progress = settings.getProgress();
+        try (Cursor<ResultSet> cursor = query("SELECT * FROM `" + table + "`", set -> set);
+             CsvWriter writer = CsvWriter.open(path, settings)) {
+            // The columns are only described once, not for every cell
+            ResultSetMetaData meta = cursor.getMetaData();
+            String[] record = new String[meta.getColumnCount()];
+            boolean[] binary = new boolean[record.length];
+            for (int i = 0; i < record.length; i++) {
+                record[i] = meta.getColumnLabel(i + 1);
+                binary[i] = ValueBinder.isBinary(meta.getColumnType(i + 1), meta.getColumnTypeName(i + 1));
+            }
+
+            if (settings.isHeader())
+                writer.write(record);
+
+            long rows = 0;
+            while (cursor.hasNext()) {
+                ResultSet set = cursor.next();
+                for (int i = 0; i < record.length; i++) {
+                    if (binary[i]) {
+                        byte[] bytes = set.getBytes(i + 1);
+                        record[i] = bytes == null ? null : Base64.getEncoder().encodeToString(bytes);
+                    } else {
+                        record[i] = set.getString(i + 1);
+                    }
                 }
-                writer.write("\n");
+                writer.write(record);
+
+                if (++rows % settings.getBatchSize() == 0 && progress != null)
+                    progress.accept(rows);
             }
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+
+            if (progress != null && rows % settings.getBatchSize() != 0)
+                progress.accept(rows);
+            if (debug)
+                log("Exported " + rows + " rows from table: " + table);
+            return rows;
+        } catch (UncheckedSQLException e) {
+            throw e.getCause();
         }
     }
 
     /**
      * Import a table from a file
+     * <p></p>
+     * <p>The file is expected without a header line, as {@link #exportToCSV(String, String)} writes it.</p>
      *
      * @param table    The table you'd like to import into
      * @param filePath The file's path you'd like to import from
      * @throws SQLException if there is an error communicating with the database
+     * @see #importCSV(String, Path, CsvSettings)
      */
     public void importFromFile(String table, String filePath) throws SQLException {
-        String statement = "LOAD DATA INFILE '" + filePath + "' INTO TABLE `" + table + "`";
+        try {
+            importCSV(table, Paths.get(filePath), headerlessCsv());
+        } catch (IOException e) {
+            throw new SQLException("Could not import table " + table + " from " + filePath, e);
+        }
+    }
+
+    /**
+     * Get the CSV settings of the files the old export and import methods use
+     *
+     * @return Default settings without a header line
+     */
+    private CsvSettings headerlessCsv() {
+        CsvSettings settings = new CsvSettings();
+        settings.setHeader(false);
+        return settings;
+    }
+
+    /**
+     * Import rows from a CSV file into a table
+     * <p></p>
+     * <p>The file is streamed and its rows are inserted with JDBC batching,</p>
+     * <p>{@code batchSize} rows at a time, so files of any size are imported with constant memory.</p>
+     * <p>Each batch is committed on its own unless the calling thread already started a transaction,</p>
+     * <p>so a failed import keeps the batches before the failure.</p>
+     * <p></p>
+     * <p>With a header, its names decide the columns, otherwise every column of the table</p>
+     * <p>is expected in order. Values of binary columns are decoded from Base64.</p>
+     *
+     * @param table    The table you'd like to import into
+     * @param path     The file you'd like to import from
+     * @param settings The format of the file
+     * @return The amount of imported rows
+     * @throws SQLException if there is an error communicating with the database, or a row has the wrong amount of values
+     * @throws IOException  if there is an error reading the file
+     */
+    public long importCSV(@NotNull String table, @NotNull Path path, @NotNull CsvSettings settings) throws SQLException, IOException {
+        if (settings.getBatchSize() <= 0)
+            throw new IllegalArgumentException("Batch size must be positive, got " + settings.getBatchSize());
         if (debug)
-            log("Importing table: " + table + " from file: " + filePath);
-        new Statement(statement, connection).execute();
+            log("Importing table: " + table + " from file: " + path);
+
+        LongConsumer progress = settings.getProgress();
+        try (CsvReader reader = CsvReader.open(path, settings)) {
+            String[] header = settings.isHeader() ? reader.read() : null;
+            if (settings.isHeader() && header == null)
+                return 0;
+
+            long imported = withConnection(connection -> {
+                List<String> columns = header == null ? columnsOf(connection, table) : Arrays.asList(header);
+                boolean[] binary = new boolean[columns.size()];
+                for (int i = 0; i < binary.length; i++)
+                    binary[i] = isBinary(connection, table, columns.get(i));
+
+                String statement = insertStatement(table, columns);
+                PreparedStatement prepStatement = connection.prepare(statement);
+                Connection raw = connection.getConnection();
+                boolean owned = raw.getAutoCommit();
+                if (owned)
+                    raw.setAutoCommit(false);
+
+                try {
+                    long rows = 0;
+                    int pending = 0;
+
+                    String[] record;
+                    while ((record = reader.read()) != null) {
+                        if (record.length != binary.length)
+                            throw new SQLException("Line " + (reader.getLine() - 1) + " of " + path + " has " + record.length + " values, expected " + binary.length);
+
+                        for (int i = 0; i < binary.length; i++) {
+                            if (binary[i] && record[i] != null)
+                                prepStatement.setBytes(i + 1, Base64.getDecoder().decode(record[i]));
+                            else
+                                ValueBinder.bind(prepStatement, i + 1, record[i], false);
+                        }
+                        prepStatement.addBatch();
+                        rows++;
+
+                        if (++pending == settings.getBatchSize()) {
+                            executeBatch("import", table, statement, prepStatement, pending);
+                            if (owned)
+                                raw.commit();
+                            pending = 0;
+
+                            if (progress != null)
+                                progress.accept(rows);
+                        }
+                    }
+
+                    if (pending > 0) {
+                        executeBatch("import", table, statement, prepStatement, pending);
+                        if (owned)
+                            raw.commit();
+
+                        if (progress != null)
+                            progress.accept(rows);
+                    }
+                    return rows;
+                } catch (IOException e) {
+                    if (owned)
+                        raw.rollback();
+                    throw new UncheckedIOException(e);
+                } catch (SQLException | RuntimeException e) {
+                    if (owned)
+                        raw.rollback();
+                    throw e;
+                } finally {
+                    prepStatement.clearBatch();
+                    if (owned)
+                        raw.setAutoCommit(true);
+                }
+            });
+
+            if (debug)
+                log("Imported " + imported + " rows into table: " + table);
+            return imported;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     /**
@@ -677,9 +1485,13 @@ public class Database {
         String statement = "SELECT COUNT(*) FROM `" + table + "`";
         if (debug)
             log("Counting rows in table: " + table);
-        ResultSet resultSet = new Statement(statement, connection).executeWithResults();
-        resultSet.next();
-        return resultSet.getInt(1);
+        return withReadConnection(connection -> measure("count", table, statement, null, timer -> {
+            try (java.sql.Statement sqlStatement = connection.getConnection().createStatement();
+                 ResultSet resultSet = sqlStatement.executeQuery(statement)) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }));
     }
 
     /**
@@ -692,7 +1504,7 @@ public class Database {
         String statement = "SHOW TABLES";
         if (debug)
             log("Getting all tables");
-        return new Statement(statement, connection).executeWithResults();
+        return queryDetached(statement);
     }
 
     /**
@@ -701,12 +1513,216 @@ public class Database {
      * @param table The table you'd like to get data from
      * @return A list of all data in the table
      * @throws SQLException if there is an error communicating with the database
+     * @deprecated This loads the whole table into memory, use {@link #cursor(String)} instead
      */
+    @Deprecated
     public ResultSet getAllDataInTable(String table) throws SQLException {
         String statement = "SELECT * FROM `" + table + "`";
         if (debug)
             log("Getting all data in table: " + table);
-        return new Statement(statement, connection).executeWithResults();
+        return queryDetached(statement);
+    }
+
+    /**
+     * Open a {@link Cursor} over every row of a table
+     *
+     * @param table The table you'd like to read
+     * @return A cursor reading each row into a map of column names to values
+     * @throws SQLException if there is an error communicating with the database
+     */
+    @NotNull
+    public Cursor<Map<String, Object>> cursor(@NotNull String table) throws SQLException {
+        if (debug)
+            log("Opening cursor over table: " + table);
+        return openCursor(false, table, "SELECT * FROM `" + table + "`", rowReader());
+    }
+
+    /**
+     * Open a {@link Cursor} over every row of a table, reading each row into an object
+     * <p></p>
+     * <p>Rows are read through the class's generated {@link RowMapper} if it has one,</p>
+     * <p>and through its {@link ObjectMapping} otherwise.</p>
+     *
+     * @param table The table you'd like to read
+     * @param clazz The class you'd like to read into
+     * @return A cursor reading each row into an object
+     * @throws SQLException if there is an error communicating with the database
+     */
+    @NotNull
+    public <T> Cursor<T> cursor(@NotNull String table, @NotNull Class<T> clazz) throws SQLException {
+        if (debug)
+            log("Opening cursor over table: " + table + " reading into " + clazz.getName());
+
+        RowMapper<T> mapper = RowMappers.find(clazz);
+        if (mapper != null && !mapper.getReadColumns().isEmpty()) {
+            String statement = "SELECT " + selection(mapper.getReadColumns().toArray(new String[0])) + " FROM `" + table + "`";
+            return openCursor(false, table, statement, set -> mapper.read(set, 1));
+        }
+
+        ObjectMapping<T> mapping = ObjectMapping.of(clazz);
+        return openCursor(false, table, "SELECT * FROM `" + table + "`", set -> {
+            try {
+                return mapping.create(set);
+            } catch (InvocationTargetException e) {
+                throw new SQLException("Could not create " + clazz.getName() + " from table " + table, e);
+            }
+        });
+    }
+
+    /**
+     * Stream every row of a table
+     *
+     * @param table The table you'd like to read
+     * @return A stream of rows, which must be closed
+     * @throws SQLException if there is an error communicating with the database
+     * @see #cursor(String)
+     */
+    @NotNull
+    public Stream<Map<String, Object>> stream(@NotNull String table) throws SQLException {
+        return cursor(table).stream();
+    }
+
+    /**
+     * Stream every row of a table, reading each row into an object
+     *
+     * @param table The table you'd like to read
+     * @param clazz The class you'd like to read into
+     * @return A stream of objects, which must be closed
+     * @throws SQLException if there is an error communicating with the database
+     * @see #cursor(String, Class)
+     */
+    @NotNull
+    public <T> Stream<T> stream(@NotNull String table, @NotNull Class<T> clazz) throws SQLException {
+        return cursor(table, clazz).stream();
+    }
+
+    /**
+     * Run a query and open a {@link Cursor} over its results
+     * <p></p>
+     * <p>Parameters are bound with the setter matching their type. A {@link UUID}</p>
+     * <p>parameter is bound as text, so pass {@link RowMappers#toBytes(UUID)}</p>
+     * <p>to compare against a binary column.</p>
+     *
+     * @param statement  The query you'd like to run
+     * @param reader     The function reading the current row of the results
+     * @param parameters The values of the query's placeholders
+     * @return A cursor reading each row with the reader
+     * @throws SQLException if there is an error communicating with the database
+     */
+    @NotNull
+    public <T> Cursor<T> query(@NotNull String statement, @NotNull SQLFunction<ResultSet, T> reader, @NotNull Object... parameters) throws SQLException {
+        return openCursor(false, null, statement, reader, parameters);
+    }
+
+    /**
+     * Run a query and open a {@link Cursor} over its results
+     * <p></p>
+     * <p>Querying the primary sees every write made so far, which a lagging replica may not have yet,</p>
+     * <p>so use it when the results decide what to write next.</p>
+     *
+     * @param primary    Whether to run the query on the primary rather than a replica
+     * @param statement  The query you'd like to run
+     * @param reader     The function reading the current row of the results
+     * @param parameters The values of the query's placeholders
+     * @return A cursor reading each row with the reader
+     * @throws SQLException if there is an error communicating with the database
+     * @see #query(String, SQLFunction, Object...)
+     */
+    @NotNull
+    public <T> Cursor<T> query(boolean primary, @NotNull String statement, @NotNull SQLFunction<ResultSet, T> reader, @NotNull Object... parameters) throws SQLException {
+        return openCursor(primary, null, statement, reader, parameters);
+    }
+
+    /**
+     * Runs a query and opens a {@link Cursor} over its results
+     *
+     * @param primary    Whether the query must run on the primary rather than a replica
+     * @param table      The table the query reads, or null if it isn't a single table
+     * @param statement  The query you'd like to run
+     * @param reader     The function reading the current row of the results
+     * @param parameters The values of the query's placeholders
+     * @return A cursor reading each row with the reader
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private <T> Cursor<T> openCursor(boolean primary, @Nullable String table, @NotNull String statement, @NotNull SQLFunction<ResultSet, T> reader, @NotNull Object... parameters) throws SQLException {
+        PooledConnection pinned = transaction.get();
+        if (pinned != null)
+            return openCursor(pinned, null, table, statement, reader, parameters);
+
+        ReplicaSet replicas = this.replicas;
+        if (replicas != null && !primary) {
+            PooledConnection lease = replicas.lease();
+            try {
+                return openCursor(lease, lease, table, statement, reader, parameters);
+            } catch (SQLException e) {
+                if (!failOver(lease, e))
+                    throw e;
+            }
+        }
+
+        PooledConnection lease = (readPool == null ? pool : readPool).lease();
+        return openCursor(lease, lease, table, statement, reader, parameters);
+    }
+
+    /**
+     * Runs a query on a connection and opens a {@link Cursor} over its results
+     *
+     * @param from       The connection you'd like to run the query on
+     * @param lease      The connection the cursor hands back once it's closed, or null if it's the transaction's
+     * @param table      The table the query reads, or null if it isn't a single table
+     * @param statement  The query you'd like to run
+     * @param reader     The function reading the current row of the results
+     * @param parameters The values of the query's placeholders
+     * @return A cursor reading each row with the reader
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private <T> Cursor<T> openCursor(@NotNull PooledConnection from, @Nullable PooledConnection lease, @Nullable String table, @NotNull String statement, @NotNull SQLFunction<ResultSet, T> reader, @NotNull Object... parameters) throws SQLException {
+        Connection connection = from.getConnection();
+
+        PreparedStatement prepStatement = null;
+        try {
+            // Streamed statements hold their connection until they're read, so they're never cached
+            prepStatement = connection.prepareStatement(statement, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            prepStatement.setFetchSize(cursorFetchSize(from, lease == null));
+            for (int i = 0; i < parameters.length; i++)
+                ValueBinder.bind(prepStatement, i + 1, parameters[i], false);
+
+            if (debug)
+                log("Opening cursor: " + statement);
+
+            PreparedStatement opened = prepStatement;
+            ResultSet set = measure("cursor", table, statement, parameters, timer -> opened.executeQuery());
+            return new Cursor<>(lease, prepStatement, set, reader, rows -> queryMetrics.recordRowsRead("cursor", table, rows));
+        } catch (SQLException | RuntimeException e) {
+            if (prepStatement != null) {
+                try {
+                    prepStatement.close();
+                } catch (SQLException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            if (lease != null)
+                lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the fetch size a cursor uses on a connection
+     * <p></p>
+     * <p>Replicas may run another database than the primary, so the driver is checked per connection.</p>
+     *
+     * @param connection The connection the cursor reads from
+     * @param pinned     Whether the connection belongs to a transaction
+     * @return {@link Integer#MIN_VALUE} to stream a MySQL result, or {@link #getFetchSize()}
+     * @throws SQLException if the connection's metadata could not be read
+     */
+    private int cursorFetchSize(PooledConnection connection, boolean pinned) throws SQLException {
+        // A streaming result blocks its connection, which would stall the rest of a transaction
+        if (pinned)
+            return fetchSize;
+        String product = connection.getConnection().getMetaData().getDatabaseProductName();
+        return "MySQL".equalsIgnoreCase(product) ? Integer.MIN_VALUE : fetchSize;
     }
 
     /**
@@ -719,7 +1735,7 @@ public class Database {
         String statement = "DROP TABLE IF EXISTS `" + table + "`";
         if (debug)
             log("Deleting table if it exists: " + table);
-        new Statement(statement, connection).execute();
+        execute(statement);
     }
 
     /**
@@ -728,11 +1744,12 @@ public class Database {
      * @param table      The table you'd like to replace the primary key in
      * @param primaryKey The new primary key
      */
+    @SneakyThrows
     public void replacePrimaryKey(String table, String primaryKey) {
         String statement = "ALTER TABLE `" + table + "` DROP PRIMARY KEY, ADD PRIMARY KEY (`" + primaryKey + "`);";
         if (debug)
             log("Changing primary key of table: " + table + " to: " + primaryKey);
-        new Statement(statement, connection).execute();
+        execute(statement);
     }
 
     /**
@@ -746,7 +1763,7 @@ public class Database {
         String statement = "INSERT INTO `" + table + "` SELECT * FROM `" + copyFrom + "`;";
         if (debug)
             log("Copying contents from table: " + copyFrom + " to table: " + table);
-        new Statement(statement, connection).execute();
+        execute(statement);
     }
 
     /**
@@ -760,7 +1777,7 @@ public class Database {
         String statement = "DESCRIBE `" + table + "`";
         if (debug)
             log("Describing table: " + table);
-        return new Statement(statement, connection).executeWithResults();
+        return queryDetached(statement);
     }
 
     /**
@@ -775,7 +1792,7 @@ public class Database {
         String statement = "DESCRIBE `" + table + "` `" + column + "`";
         if (debug)
             log("Describing column: " + column + " in table: " + table);
-        return new Statement(statement, connection).executeWithResults();
+        return queryDetached(statement);
     }
 
     /**
@@ -790,7 +1807,7 @@ public class Database {
         String statement = "ALTER TABLE `" + table + "` ALTER `" + column + "` SET DEFAULT " + value + ";";
         if (debug)
             log("Setting default value: " + value + " for column: " + column + " in table: " + table);
-        new Statement(statement, connection).execute();
+        execute(statement);
     }
 
     /**
@@ -800,137 +1817,1522 @@ public class Database {
      * @param object The object you'd like to insert
      * @throws SQLException if there is an error communicating with the database
      */
+    @SuppressWarnings("unchecked")
     public void insert(String table, Object object) throws SQLException {
-        ArrayList<String> keys = new ArrayList<>();
-        ArrayList<String> values = new ArrayList<>();
-
-        // Adds all fields to the keys and values ArrayLists
-        for (Field field : object.getClass().getDeclaredFields()) {
-            String key = field.getName();
-
-            // Checks the field's annotations
-            if (field.isAnnotationPresent(DontSave.class)) continue;
-            if (field.isAnnotationPresent(games.negative.framework.database.annotation.Column.class)) {
-                // If there is an annotation, use the annotation's name instead of the field's name
-                key = field.getAnnotation(games.negative.framework.database.annotation.Column.class).value();
-                return;
-            }
-
-            keys.add(key);
-            try {
-                field.setAccessible(true);
-                values.add(field.get(object).toString());
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-            }
-        }
-
-        // Adds all fields from the superclass to the keys and values ArrayLists
-        for (Field field : object.getClass().getSuperclass().getDeclaredFields()) {
-            String key = field.getName();
-
-            // Checks the field's annotations
-            if (field.isAnnotationPresent(DontSave.class)) continue;
-            if (field.isAnnotationPresent(games.negative.framework.database.annotation.Column.class)) {
-                // If there is an annotation, use the annotation's name instead of the field's name
-                key = field.getAnnotation(games.negative.framework.database.annotation.Column.class).value();
-                return;
-            }
-
-            keys.add(key);
-            try {
-                field.setAccessible(true);
-                values.add(field.get(object).toString());
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
+        RowMapper<Object> mapper = (RowMapper<Object>) RowMappers.find(object.getClass());
+
+        withConnection(connection -> {
+            if (mapper != null && !hasBinaryColumns(connection, table, mapper.getWriteColumns())) {
+                // Binds the object's values through its generated mapper
+                String statement = insertStatement(table, mapper.getWriteColumns());
+                PreparedStatement prepStatement = connection.prepare(statement);
+                mapper.bind(object, prepStatement, 1);
+                return measure("insert", table, statement, object, timer -> {
+                    int inserted = prepStatement.executeUpdate();
+                    timer.wrote(inserted);
+                    return inserted;
+                });
             }
-        }
-
-        // Loops through and puts everything in a HashMap
-        HashMap<String, String> keyValuesHashMap = new HashMap<>();
-        for (int i = 0; i < keys.size(); i++) {
-            keyValuesHashMap.put(keys.get(i), values.get(i));
-        }
 
-        // Writes the HashMap to the table
-        insert(table, keyValuesHashMap);
+            // Writes the object's values to the table
+            return insert(connection, table, toValues(object));
+        });
 
         if (debug)
             log("Wrote object to table: " + table);
     }
 
     /**
-     * Reads {@code Java Objects} from a table
+     * Insert many rows into a table through a single prepared statement
+     * <p></p>
+     * <p>Rows are sent with JDBC batching, {@code batchSize} rows per round trip,</p>
+     * <p>inside a single transaction unless the calling thread already started one.</p>
+     * <p>On MySQL the driver rewrites each batch into one multi-row {@code VALUES} statement.</p>
+     * <p>Every row must have the same columns as the first one.</p>
      *
-     * @param table The table you'd like to read from
-     * @param key   The key you'd like to read from
-     * @param value The value you'd like to read from
-     * @param clazz The class you'd like to read into
-     * @return The object you read into
-     * @throws SQLException              if there is an error communicating with the database
-     * @throws IllegalAccessException    if there is an error accessing the object
-     * @throws InstantiationException    if there is an error instantiating the object
-     * @throws InvocationTargetException if there is an error invoking the object
+     * @param table     The table you'd like to insert to
+     * @param rows      The rows you'd like to insert, as maps of keys and values
+     * @param batchSize The amount of rows you'd like to send per batch
+     * @return The amount of inserted rows for every batch which was sent
+     * @throws SQLException             if there is an error communicating with the database
+     * @throws IllegalArgumentException if the rows don't all have the same columns
      */
-    public Object get(String table, String key, String value, Class<?> clazz) throws SQLException, InvocationTargetException, InstantiationException, IllegalAccessException {
-        String statement = "SELECT * FROM `" + table + "` WHERE `" + key + "` = '" + value + "';";
+    public int[] insertBatch(@NotNull String table, @NotNull List<? extends Map<String, ?>> rows, int batchSize) throws SQLException, IllegalArgumentException {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+        if (rows.isEmpty())
+            return new int[0];
+
+        List<String> columns = batchColumns("insert", table, rows);
+        String statement = insertStatement(table, columns);
         if (debug)
-            log("Reading object from table: " + table + " with key: " + key + " and value: " + value);
-        ResultSet resultSet = new Statement(statement, connection).executeWithResults();
+            log("Batch inserting " + rows.size() + " rows into table: " + table + " with batch size: " + batchSize);
 
-        // Creates a new instance of the class
-        Object object;
-        Constructor<?> constructor = retrieveConstructor(clazz);
-        ArrayList<Object> parameters = new ArrayList<>();
+        return writeBatch("batch_insert", table, statement, columns, rows, batchSize);
+    }
 
-        HashMap<String, Object> keyValuesHashMap = new HashMap<>();
+    /**
+     * Insert many rows into a table through a single prepared statement
+     *
+     * @param table The table you'd like to insert to
+     * @param rows  The rows you'd like to insert, as maps of keys and values
+     * @return The amount of inserted rows for every batch which was sent
+     * @throws SQLException if there is an error communicating with the database
+     * @see #insertBatch(String, List, int)
+     */
+    public int[] insertBatch(@NotNull String table, @NotNull List<? extends Map<String, ?>> rows) throws SQLException {
+        return insertBatch(table, rows, DEFAULT_BATCH_SIZE);
+    }
 
-        while (resultSet.next()) {
-            // Loops through all the columns and adds them to the HashMap
-            for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
-                keyValuesHashMap.put(resultSet.getMetaData().getColumnName(i), resultSet.getObject(i));
-            }
+    /**
+     * Insert many builders into their table through a single prepared statement
+     *
+     * @param builders  The builders you'd like to insert, which must all target the same table
+     * @param batchSize The amount of rows you'd like to send per batch
+     * @return The amount of inserted rows for every batch which was sent
+     * @throws SQLException             if there is an error communicating with the database
+     * @throws IllegalArgumentException if the builders don't share a table and columns
+     * @see #insertBatch(String, List, int)
+     */
+    public int[] insertBatch(@NotNull Collection<InsertBuilder> builders, int batchSize) throws SQLException, IllegalArgumentException {
+        if (builders.isEmpty())
+            return new int[0];
+
+        String table = builders.iterator().next().getTable();
+        List<Map<String, Object>> rows = new ArrayList<>(builders.size());
+        for (InsertBuilder builder : builders) {
+            if (!table.equals(builder.getTable()))
+                throw new IllegalArgumentException("Every builder in a batch insert must target table " + table + ", found " + builder.getTable());
+            rows.add(builder.getTypedValues());
         }
 
-        for (Parameter p : constructor.getParameters()) {
-            if (hasAnnotation(p))
-                parameters.add(keyValuesHashMap.get(p.getAnnotation(games.negative.framework.database.annotation.Column.class).value()));
-        }
+        return insertBatch(table, rows, batchSize);
+    }
 
-        if (debug)
-            log("Read object from table: " + table);
-        object = constructor.newInstance(parameters.toArray());
-        return object;
+    /**
+     * Insert many builders into their table through a single prepared statement
+     *
+     * @param builders The builders you'd like to insert, which must all target the same table
+     * @return The amount of inserted rows for every batch which was sent
+     * @throws SQLException if there is an error communicating with the database
+     * @see #insertBatch(String, List, int)
+     */
+    public int[] insertBatch(@NotNull Collection<InsertBuilder> builders) throws SQLException {
+        return insertBatch(builders, DEFAULT_BATCH_SIZE);
     }
 
     /**
-     * Retrieves the correct constructor for a class
+     * Write many {@code Java Objects} of the same class to a table through a single prepared statement
      *
-     * @param clazz The class you'd like to get the constructor for
-     * @return The constructor you retrieved
+     * @param table     The table you'd like to write to
+     * @param objects   The objects you'd like to insert
+     * @param batchSize The amount of rows you'd like to send per batch
+     * @return The amount of inserted rows for every batch which was sent
+     * @throws SQLException if there is an error communicating with the database
+     * @see #insertBatch(String, List, int)
      */
-    private Constructor<?> retrieveConstructor(Class<?> clazz) {
-        ArrayList<Constructor<?>> constructors = new ArrayList<>(Arrays.asList(clazz.getConstructors()));
-        AtomicReference<Constructor<?>> validConstructor = new AtomicReference<>();
-        for (Constructor<?> constructor : constructors) {
-            constructor.setAccessible(true);
-            Arrays.stream(constructor.getAnnotations()).forEach(annotation -> {
-                if (annotation.annotationType().equals(DatabaseConstructor.class)) {
-                    validConstructor.set(constructor);
-                }
-            });
-        }
-        return validConstructor.get();
+    @SuppressWarnings("unchecked")
+    public int[] insertObjects(@NotNull String table, @NotNull Collection<?> objects, int batchSize) throws SQLException {
+        if (objects.isEmpty())
+            return new int[0];
+
+        Class<?> type = objects.iterator().next().getClass();
+        RowMapper<Object> mapper = (RowMapper<Object>) RowMappers.find(type);
+        if (mapper != null && objects.stream().allMatch(object -> object.getClass() == type)
+                && !withConnection(connection -> hasBinaryColumns(connection, table, mapper.getWriteColumns())))
+            return insertMapped(table, mapper, (Collection<Object>) objects, batchSize);
+
+        List<Map<String, Object>> rows = new ArrayList<>(objects.size());
+        for (Object object : objects)
+            rows.add(toValues(object));
+
+        return insertBatch(table, rows, batchSize);
+    }
+
+    /**
+     * Update many rows in a table through a single prepared statement
+     * <p></p>
+     * <p>Every row is matched by its key column and must update the same columns.</p>
+     * <p>Rows are sent with JDBC batching, {@code batchSize} rows per round trip,</p>
+     * <p>inside a single transaction unless the calling thread already started one.</p>
+     *
+     * @param table     The table you'd like to update
+     * @param key       The key column rows are matched by
+     * @param rows      A map of key values to the columns and values you'd like to set
+     * @param batchSize The amount of rows you'd like to send per batch
+     * @return The amount of updated rows for every batch which was sent
+     * @throws SQLException             if there is an error communicating with the database
+     * @throws IllegalArgumentException if the rows don't all update the same columns
+     */
+    public int[] updateBatch(@NotNull String table, @NotNull String key, @NotNull Map<?, ? extends Map<String, ?>> rows, int batchSize) throws SQLException, IllegalArgumentException {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+        if (rows.isEmpty())
+            return new int[0];
+
+        List<String> columns = new ArrayList<>(rows.values().iterator().next().keySet());
+        for (Map<String, ?> row : rows.values()) {
+            if (row.size() != columns.size() || !row.keySet().containsAll(columns))
+                throw new IllegalArgumentException("Every row in a batch update of " + table + " must have the columns " + columns);
+        }
+
+        StringBuilder statement = new StringBuilder("UPDATE `" + table + "` SET ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0)
+                statement.append(", ");
+            statement.append("`").append(columns.get(i)).append("` = ?");
+        }
+        statement.append(" WHERE `").append(key).append("` = ?");
+
+        if (debug)
+            log("Batch updating " + rows.size() + " rows in table: " + table + " with batch size: " + batchSize);
+
+        int[] updated = withConnection(connection -> atomically(connection, () -> {
+            PreparedStatement prepStatement = connection.prepare(statement.toString());
+            int[] counts = new int[(rows.size() + batchSize - 1) / batchSize];
+            int batch = 0;
+            int pending = 0;
+
+            try {
+                for (Map.Entry<?, ? extends Map<String, ?>> row : rows.entrySet()) {
+                    for (int i = 0; i < columns.size(); i++)
+                        bind(connection, prepStatement, i + 1, table, columns.get(i), row.getValue().get(columns.get(i)));
+                    bind(connection, prepStatement, columns.size() + 1, table, key, row.getKey());
+                    prepStatement.addBatch();
+
+                    if (++pending == batchSize) {
+                        counts[batch++] = executeBatch("batch_update", table, statement.toString(), prepStatement, pending);
+                        pending = 0;
+                    }
+                }
+
+                if (pending > 0)
+                    counts[batch] = executeBatch("batch_update", table, statement.toString(), prepStatement, pending);
+            } finally {
+                prepStatement.clearBatch();
+            }
+
+            return counts;
+        }));
+        invalidate(cache -> cache.invalidate(table));
+        return updated;
+    }
+
+    /**
+     * Inserts objects in batches through their generated mapper
+     *
+     * @param table     The table you'd like to write to
+     * @param mapper    The objects' mapper
+     * @param objects   The objects you'd like to insert
+     * @param batchSize The amount of rows you'd like to send per batch
+     * @return The amount of inserted rows for every batch which was sent
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private int[] insertMapped(String table, RowMapper<Object> mapper, Collection<Object> objects, int batchSize) throws SQLException {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+
+        String statement = insertStatement(table, mapper.getWriteColumns());
+        if (debug)
+            log("Batch inserting " + objects.size() + " " + mapper.getType().getSimpleName() + " objects into table: " + table + " with batch size: " + batchSize);
+
+        return withConnection(connection -> atomically(connection, () -> {
+            PreparedStatement prepStatement = connection.prepare(statement);
+            int[] counts = new int[(objects.size() + batchSize - 1) / batchSize];
+            int batch = 0;
+            int pending = 0;
+
+            try {
+                for (Object object : objects) {
+                    mapper.bind(object, prepStatement, 1);
+                    prepStatement.addBatch();
+
+                    if (++pending == batchSize) {
+                        counts[batch++] = executeBatch("batch_insert", table, statement, prepStatement, pending);
+                        pending = 0;
+                    }
+                }
+
+                if (pending > 0)
+                    counts[batch] = executeBatch("batch_insert", table, statement, prepStatement, pending);
+            } finally {
+                prepStatement.clearBatch();
+            }
+
+            return counts;
+        }));
+    }
+
+    /**
+     * Open a {@link BatchWriter} which buffers rows for a table and inserts them in batches
+     *
+     * @param table     The table you'd like to write to
+     * @param batchSize The amount of rows buffered before they're sent
+     * @return The batch writer
+     */
+    @NotNull
+    public BatchWriter batchWriter(@NotNull String table, int batchSize) {
+        return new BatchWriter(this, table, batchSize);
+    }
+
+    /**
+     * Open a {@link BatchWriter} which buffers rows for a table and inserts them in batches
+     *
+     * @param table The table you'd like to write to
+     * @return The batch writer
+     */
+    @NotNull
+    public BatchWriter batchWriter(@NotNull String table) {
+        return batchWriter(table, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Reads an object's fields into a map of keys and values
+     *
+     * @param object The object you'd like to read
+     * @return A map of column names and values
+     * @see ObjectMapping
+     */
+    @SuppressWarnings("unchecked")
+    Map<String, Object> toValues(Object object) {
+        return ObjectMapping.of((Class<Object>) object.getClass()).read(object);
+    }
+
+    /**
+     * Reads {@code Java Objects} from a table
+     *
+     * @param table The table you'd like to read from
+     * @param key   The key you'd like to read from
+     * @param value The value you'd like to read from
+     * @param clazz The class you'd like to read into
+     * @return The object you read into
+     * @throws SQLException              if there is an error communicating with the database
+     * @throws IllegalAccessException    if there is an error accessing the object
+     * @throws InstantiationException    if there is an error instantiating the object
+     * @throws InvocationTargetException if there is an error invoking the object
+     */
+    public Object get(String table, String key, Object value, Class<?> clazz) throws SQLException, InvocationTargetException, InstantiationException, IllegalAccessException {
+        if (debug)
+            log("Reading object from table: " + table + " with key: " + key + " and value: " + value);
+
+        RowMapper<?> mapper = RowMappers.find(clazz);
+        RowCache cache = rowCache;
+        if (cache != null && !isInTransaction()) {
+            // Cached rows are kept as maps, so they're always read with reflection
+            Map<String, Object> row = cachedRow(cache, table, key, value);
+            return ObjectMapping.of(clazz).create(row == null ? Collections.emptyMap() : row);
+        }
+
+        if (mapper != null && !mapper.getReadColumns().isEmpty()) {
+            // Reads the row through the class's generated mapper
+            String statement = "SELECT " + selection(mapper.getReadColumns().toArray(new String[0])) + " FROM `" + table + "` WHERE `" + key + "` = ? LIMIT 1";
+            Object object = withReadConnection(connection -> {
+                PreparedStatement prepStatement = connection.prepare(statement);
+                bind(connection, prepStatement, 1, table, key, value);
+
+                return measure("select", table, statement, value, timer -> {
+                    try (ResultSet set = prepStatement.executeQuery()) {
+                        if (!set.next())
+                            return null;
+                        timer.read(1);
+                        return mapper.read(set, 1);
+                    }
+                });
+            });
+
+            // A missing row still creates an object, with every constructor argument null
+            if (object == null)
+                object = ObjectMapping.of(clazz).create(Collections.emptyMap());
+
+            if (debug)
+                log("Read object from table: " + table);
+            return object;
+        }
+
+        ObjectMapping<?> mapping = ObjectMapping.of(clazz);
+        String statement = "SELECT * FROM `" + table + "` WHERE `" + key + "` = ? LIMIT 1";
+
+        Object object;
+        try {
+            object = withReadConnection(connection -> {
+                PreparedStatement prepStatement = connection.prepare(statement);
+                bind(connection, prepStatement, 1, table, key, value);
+
+                return measure("select", table, statement, value, timer -> {
+                    try (ResultSet set = prepStatement.executeQuery()) {
+                        // Creates a new instance of the class
+                        if (set.next()) {
+                            timer.read(1);
+                            return mapping.create(set);
+                        }
+                        return mapping.create(Collections.emptyMap());
+                    } catch (InvocationTargetException e) {
+                        throw new SQLException("Could not create " + clazz.getName() + " from table " + table, e);
+                    }
+                });
+            });
+        } catch (SQLException e) {
+            if (e.getCause() instanceof InvocationTargetException)
+                throw (InvocationTargetException) e.getCause();
+            throw e;
+        }
+
+        if (debug)
+            log("Read object from table: " + table);
+        return object;
+    }
+
+    /**
+     * Read the rows of many keys at once
+     * <p></p>
+     * <p>The keys are sent in chunks of {@link #getInListSize()} keys per {@code WHERE key IN (...)} query,</p>
+     * <p>so loading 500 players takes one round trip instead of 500.</p>
+     *
+     * @param table   The table you'd like to read from
+     * @param key     The key column
+     * @param keys    The values of the key column you'd like to read
+     * @param columns The columns you'd like to read, or none for every column; the key column is always read
+     * @return A map of every key which has a row to its row; keys without a row are left out
+     * @throws SQLException if there is an error communicating with the database
+     */
+    public <K> Map<K, Map<String, Object>> getRows(@NotNull String table, @NotNull String key, @NotNull Collection<K> keys, @NotNull String... columns) throws SQLException {
+        if (debug)
+            log("Getting " + keys.size() + " rows from " + table + " by " + key);
+
+        RowCache cache = rowCache;
+        if (cache != null && !isInTransaction()) {
+            Map<K, Map<String, Object>> rows = cachedRows(cache, table, key, keys);
+            Map<K, Map<String, Object>> projected = new LinkedHashMap<>(rows.size() * 2);
+            for (Map.Entry<K, Map<String, Object>> row : rows.entrySet()) {
+                Map<String, Object> columnsOfRow = project(row.getValue(), withKey(key, columns));
+                if (columnsOfRow == null)
+                    return selectMany(false, table, key, keys, selection(withKey(key, columns)), set -> set.getObject(key), rowReader());
+                projected.put(row.getKey(), columnsOfRow);
+            }
+            return projected;
+        }
+
+        return selectMany(false, table, key, keys, selection(withKey(key, columns)), set -> set.getObject(key), rowReader());
+    }
+
+    /**
+     * Read the {@code Java Objects} of many keys at once
+     * <p></p>
+     * <p>The keys are sent in chunks of {@link #getInListSize()} keys per {@code WHERE key IN (...)} query,</p>
+     * <p>and every row is mapped as it's read, through the class's generated {@link RowMapper} if it has one.</p>
+     *
+     * @param table The table you'd like to read from
+     * @param key   The key column
+     * @param keys  The values of the key column you'd like to read
+     * @param clazz The class you'd like to read into
+     * @return A map of every key which has a row to its object; keys without a row are left out
+     * @throws SQLException              if there is an error communicating with the database
+     * @throws InvocationTargetException if the class's constructor threw
+     */
+    public <K, T> Map<K, T> getMany(@NotNull String table, @NotNull String key, @NotNull Collection<K> keys, @NotNull Class<T> clazz) throws SQLException, InvocationTargetException {
+        if (debug)
+            log("Reading " + keys.size() + " " + clazz.getSimpleName() + " objects from table: " + table + " by " + key);
+
+        ObjectMapping<T> mapping = ObjectMapping.of(clazz);
+        Map<K, T> objects = new LinkedHashMap<>(keys.size() * 2);
+        try {
+            RowCache cache = rowCache;
+            if (cache != null && !isInTransaction()) {
+                // Cached rows are kept as maps, so they're always read with reflection
+                for (Map.Entry<K, Map<String, Object>> row : cachedRows(cache, table, key, keys).entrySet())
+                    objects.put(row.getKey(), mapping.create(row.getValue()));
+                return objects;
+            }
+
+            RowMapper<?> mapper = RowMappers.find(clazz);
+            if (mapper != null && !mapper.getReadColumns().isEmpty()) {
+                List<String> columns = new ArrayList<>();
+                columns.add(key);
+                columns.addAll(mapper.getReadColumns());
+                return selectMany(false, table, key, keys, selection(columns.toArray(new String[0])), set -> set.getObject(1), set -> clazz.cast(mapper.read(set, 2)));
+            }
+
+            return selectMany(false, table, key, keys, "*", set -> set.getObject(key), set -> {
+                try {
+                    return mapping.create(set);
+                } catch (InvocationTargetException e) {
+                    throw new SQLException("Could not create " + clazz.getName() + " from table " + table, e);
+                }
+            });
+        } catch (SQLException e) {
+            if (e.getCause() instanceof InvocationTargetException)
+                throw (InvocationTargetException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a function with a connection
+     * <p></p>
+     * <p>If the current thread is in a transaction, the transaction's connection is used,</p>
+     * <p>otherwise a connection is leased from the pool for the duration of the function.</p>
+     *
+     * @param function The function you'd like to run
+     * @return The function's result
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private <T> T withConnection(@NotNull SQLFunction<PooledConnection, T> function) throws SQLException {
+        return withConnection(pool, function);
+    }
+
+    /**
+     * Runs a function which only reads with a connection
+     * <p></p>
+     * <p>Outside a transaction, a replica is used if there are any, and the function runs</p>
+     * <p>again on the primary if the replica's connection broke. On a SQLite database with</p>
+     * <p>read-only connections, one of those is used so the function doesn't wait behind a write.</p>
+     *
+     * @param function The function you'd like to run
+     * @return The function's result
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private <T> T withReadConnection(@NotNull SQLFunction<PooledConnection, T> function) throws SQLException {
+        return withReadConnection(false, function);
+    }
+
+    /**
+     * Runs a function which only reads with a connection
+     *
+     * @param primary  Whether the function must see the primary's data, which skips the replicas
+     * @param function The function you'd like to run
+     * @return The function's result
+     * @throws SQLException if there is an error communicating with the database
+     * @see #withReadConnection(SQLFunction)
+     */
+    private <T> T withReadConnection(boolean primary, @NotNull SQLFunction<PooledConnection, T> function) throws SQLException {
+        ReplicaSet replicas = this.replicas;
+        if (replicas != null && !primary && transaction.get() == null) {
+            PooledConnection lease = replicas.lease();
+            try {
+                return function.apply(lease);
+            } catch (SQLException e) {
+                if (!failOver(lease, e))
+                    throw e;
+            } finally {
+                lease.close();
+            }
+        }
+        return withConnection(readPool == null ? pool : readPool, function);
+    }
+
+    /**
+     * Check if a failed read should run again on the primary
+     * <p></p>
+     * <p>That's when it ran on a replica and failed because the connection broke, in which</p>
+     * <p>case the failure counts towards ejecting the replica.</p>
+     *
+     * @param lease     The connection the read ran on
+     * @param exception The exception the read failed with
+     * @return Whether the read should run again
+     */
+    private boolean failOver(@NotNull PooledConnection lease, @NotNull SQLException exception) {
+        ReplicaSet replicas = this.replicas;
+        if (replicas == null || !replicas.isReplica(lease) || !isConnectionFailure(exception))
+            return false;
+
+        replicas.reportFailure(lease);
+        if (debug)
+            log("Read on replica " + lease.getPool().getName() + " failed, running it on the primary: " + exception.getMessage());
+        return true;
+    }
+
+    /**
+     * Check if an exception was caused by a broken connection ({@code SQLSTATE 08xxx}), anywhere in its causes
+     *
+     * @param exception The exception you'd like to check
+     * @return Whether the connection broke
+     */
+    private boolean isConnectionFailure(SQLException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException || cause instanceof SQLNonTransientConnectionException || cause instanceof SQLRecoverableException)
+                return true;
+            if (cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                if (state != null && state.startsWith("08"))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs a function with the transaction's connection, or one leased from a pool
+     *
+     * @param from     The pool you'd like to lease from
+     * @param function The function you'd like to run
+     * @return The function's result
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private <T> T withConnection(@NotNull ConnectionPool from, @NotNull SQLFunction<PooledConnection, T> function) throws SQLException {
+        PooledConnection pinned = transaction.get();
+        if (pinned != null)
+            return function.apply(pinned);
+
+        try (PooledConnection lease = from.lease()) {
+            return function.apply(lease);
+        }
+    }
+
+    /**
+     * Runs a function inside a transaction on a connection
+     * <p></p>
+     * <p>If the connection is already in a transaction, the function simply joins it.</p>
+     *
+     * @param connection The connection you'd like to use
+     * @param function   The function you'd like to run
+     * @return The function's result
+     * @throws SQLException if there is an error, in which case the transaction is rolled back
+     */
+    private <T> T atomically(PooledConnection connection, SQLSupplier<T> function) throws SQLException {
+        Connection raw = connection.getConnection();
+        if (!raw.getAutoCommit())
+            return function.get();
+
+        raw.setAutoCommit(false);
+        T result;
+        try {
+            result = function.get();
+            raw.commit();
+        } catch (SQLException | RuntimeException | Error e) {
+            // Neither cleanup step may hide the failure which caused the rollback
+            try {
+                raw.rollback();
+            } catch (SQLException rollback) {
+                e.addSuppressed(rollback);
+            }
+            try {
+                raw.setAutoCommit(true);
+            } catch (SQLException restore) {
+                e.addSuppressed(restore);
+            }
+            throw e;
+        }
+
+        raw.setAutoCommit(true);
+        return result;
+    }
+
+    /**
+     * Get the transaction a function joins on the current thread
+     * <p></p>
+     * <p>A transaction started with {@link #startTransaction()} gets one the first time it's joined.</p>
+     *
+     * @param pinned    The current thread's transaction connection
+     * @param isolation The isolation level the joining function asked for
+     * @return The current thread's transaction
+     * @throws SQLException          if the connection's isolation level could not be read
+     * @throws IllegalStateException if the transaction runs at another isolation level
+     */
+    private Transaction joinTransaction(PooledConnection pinned, TransactionSettings.Isolation isolation) throws SQLException {
+        int level = isolationLevel(isolation);
+        if (level != -1 && level != pinned.getConnection().getTransactionIsolation())
+            throw new IllegalStateException("Can't join a transaction at isolation level " + isolation + ", the transaction is already running at another level");
+
+        Transaction active = activeTransaction.get();
+        if (active == null) {
+            active = new Transaction(this, pinned, TransactionSettings.Isolation.DEFAULT, 1);
+            activeTransaction.set(active);
+        }
+        return active;
+    }
+
+    /**
+     * Runs one attempt of a transaction on a freshly leased connection
+     *
+     * @param settings The settings the transaction runs with
+     * @param function The transaction's function
+     * @param attempt  The attempt, starting at 1
+     * @return The function's result
+     * @throws SQLException if the attempt failed, in which case it's rolled back
+     */
+    private <T> T runTransaction(TransactionSettings settings, SQLFunction<Transaction, T> function, int attempt) throws SQLException {
+        try (PooledConnection lease = pool.lease()) {
+            Connection raw = lease.getConnection();
+            int previousIsolation = raw.getTransactionIsolation();
+            int isolation = isolationLevel(settings.getIsolation());
+
+            if (isolation != -1 && isolation != previousIsolation)
+                raw.setTransactionIsolation(isolation);
+            raw.setAutoCommit(false);
+            transaction.set(lease);
+
+            try {
+                return measure("transaction", null, "TRANSACTION " + settings.getIsolation() + " (attempt " + attempt + ")", null, timer -> {
+                    Transaction tx = new Transaction(this, lease, settings.getIsolation(), attempt);
+                    activeTransaction.set(tx);
+                    T result = function.apply(tx);
+                    if (tx.isRollbackOnly())
+                        raw.rollback();
+                    else
+                        raw.commit();
+                    return result;
+                });
+            } catch (SQLException | RuntimeException | Error e) {
+                try {
+                    raw.rollback();
+                } catch (SQLException rollback) {
+                    e.addSuppressed(rollback);
+                }
+                throw e;
+            } finally {
+                transaction.remove();
+                activeTransaction.remove();
+                flushInvalidations();
+                raw.setAutoCommit(true);
+                if (isolation != -1 && isolation != previousIsolation)
+                    raw.setTransactionIsolation(previousIsolation);
+            }
+        }
+    }
+
+    /**
+     * Get the JDBC isolation level to use for an isolation
+     * <p></p>
+     * <p>SQLite only knows {@code READ_UNCOMMITTED} and {@code SERIALIZABLE},</p>
+     * <p>and every level above the first is serializable there anyway.</p>
+     *
+     * @param isolation The isolation
+     * @return The JDBC level, or -1 to keep the connection's own
+     */
+    private int isolationLevel(TransactionSettings.Isolation isolation) {
+        if (isolation == TransactionSettings.Isolation.DEFAULT || sqlLiteFile == null)
+            return isolation.getLevel();
+        return isolation == TransactionSettings.Isolation.READ_UNCOMMITTED
+                ? Connection.TRANSACTION_READ_UNCOMMITTED
+                : Connection.TRANSACTION_SERIALIZABLE;
+    }
+
+    /**
+     * Check if a transaction failed in a way which retrying may fix
+     * <p></p>
+     * <p>That's a deadlock or serialization failure ({@code SQLSTATE 40xxx}), a MySQL lock wait</p>
+     * <p>timeout, or a busy or locked SQLite database, anywhere in the exception's causes.</p>
+     *
+     * @param exception The exception the transaction failed with
+     * @return Whether the transaction may be retried
+     */
+    private boolean isRetryable(SQLException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (!(cause instanceof SQLException))
+                continue;
+
+            SQLException sql = (SQLException) cause;
+            String state = sql.getSQLState();
+            if (state != null && state.startsWith("40"))
+                return true;
+
+            int code = sql.getErrorCode();
+            if (sqlLiteFile == null ? code == 1205 || code == 1213 : code == 5 || code == 6)
+                return true;
+
+            SQLException next = sql.getNextException();
+            if (next != null && next != sql.getCause() && isRetryable(next))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads a row by key through the row cache
+     *
+     * @param cache The row cache
+     * @param table The table
+     * @param key   The key column
+     * @param value The key value
+     * @return Every column of the row, which must not be modified, or null if there is none
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private Map<String, Object> cachedRow(RowCache cache, String table, String key, Object value) throws SQLException {
+        Map<String, Object> row = cache.get(table, key, value);
+        if (row != null)
+            return row;
+
+        // The cache is invalidated by writes to the primary, so a lagging replica must not fill it
+        long stamp = cache.stamp(table);
+        row = selectRow(true, table, key, value);
+        if (row != null)
+            cache.put(table, key, value, row, stamp);
+        return row;
+    }
+
+    /**
+     * Reads the rows of many keys through the row cache, querying only the keys which aren't cached
+     *
+     * @param cache The row cache
+     * @param table The table
+     * @param key   The key column
+     * @param keys  The key values
+     * @return A map of every key which has a row to its row, which must not be modified
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private <K> Map<K, Map<String, Object>> cachedRows(RowCache cache, String table, String key, Collection<K> keys) throws SQLException {
+        Map<K, Map<String, Object>> rows = new LinkedHashMap<>(keys.size() * 2);
+        List<K> missing = new ArrayList<>();
+        for (K value : keys) {
+            Map<String, Object> row = cache.get(table, key, value);
+            if (row != null)
+                rows.put(value, row);
+            else
+                missing.add(value);
+        }
+
+        if (!missing.isEmpty()) {
+            long stamp = cache.stamp(table);
+            for (Map.Entry<K, Map<String, Object>> row : selectMany(true, table, key, missing, "*", set -> set.getObject(key), rowReader()).entrySet()) {
+                cache.put(table, key, row.getKey(), row.getValue(), stamp);
+                rows.put(row.getKey(), row.getValue());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Reads the rows of many keys in chunks of {@code WHERE key IN (...)} queries
+     * <p></p>
+     * <p>Every row is matched back to the requested key it belongs to, even if the database</p>
+     * <p>returns the key as another type, such as the bytes of a {@link UUID} or a {@code Long}</p>
+     * <p>for an {@code Integer}.</p>
+     *
+     * @param primary   Whether the rows must be read from the primary rather than a replica
+     * @param table     The table
+     * @param key       The key column
+     * @param keys      The key values
+     * @param selection The selected columns
+     * @param keyReader Reads the key of the current row
+     * @param reader    Reads the current row
+     * @return A map of every key which has a row to what was read from it
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private <K, T> Map<K, T> selectMany(boolean primary, String table, String key, Collection<K> keys, String selection, SQLFunction<ResultSet, Object> keyReader, SQLFunction<ResultSet, T> reader) throws SQLException {
+        Map<String, K> requested = new HashMap<>(keys.size() * 2);
+        Map<String, K> requestedIgnoringCase = new HashMap<>();
+        for (K value : keys) {
+            if (value == null)
+                continue;
+            requested.putIfAbsent(keyText(value), value);
+            requestedIgnoringCase.putIfAbsent(keyText(value).toLowerCase(Locale.ROOT), value);
+        }
+
+        Map<K, T> result = new LinkedHashMap<>(requested.size() * 2);
+        if (requested.isEmpty())
+            return result;
+
+        List<K> values = new ArrayList<>(requested.values());
+        int chunkSize = Math.max(1, inListSize);
+
+        withReadConnection(primary, connection -> {
+            for (int from = 0; from < values.size(); from += chunkSize) {
+                List<K> chunk = values.subList(from, Math.min(from + chunkSize, values.size()));
+
+                StringBuilder statement = new StringBuilder("SELECT " + selection + " FROM `" + table + "` WHERE `" + key + "` IN (");
+                for (int i = 0; i < chunk.size(); i++)
+                    statement.append(i > 0 ? ", ?" : "?");
+                statement.append(")");
+
+                PreparedStatement prepStatement = connection.prepare(statement.toString());
+                for (int i = 0; i < chunk.size(); i++)
+                    bind(connection, prepStatement, i + 1, table, key, chunk.get(i));
+
+                measure("select", table, statement.toString(), chunk, timer -> {
+                    int read = 0;
+                    try (ResultSet set = prepStatement.executeQuery()) {
+                        while (set.next()) {
+                            read++;
+                            String text = keyText(keyReader.apply(set));
+                            K value = requested.get(text);
+                            if (value == null)
+                                value = requestedIgnoringCase.get(text.toLowerCase(Locale.ROOT));
+                            if (value != null)
+                                result.put(value, reader.apply(set));
+                        }
+                    }
+                    timer.read(read);
+                    return null;
+                });
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Gets the text a key is matched by, so keys of different types find each other
+     *
+     * @param value The key value
+     * @return The key's text
+     */
+    private String keyText(Object value) {
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            return bytes.length == 16 ? RowMappers.toUUID(bytes).toString() : Base64.getEncoder().encodeToString(bytes);
+        }
+        if (value instanceof Number && !(value instanceof Double || value instanceof Float))
+            return new BigDecimal(value.toString()).stripTrailingZeros().toPlainString();
+        return String.valueOf(value);
+    }
+
+    /**
+     * Adds the key column to a selection of columns, unless every column is selected
+     *
+     * @param key     The key column
+     * @param columns The selected columns
+     * @return The columns, including the key column
+     */
+    private String[] withKey(String key, String... columns) {
+        if (columns.length == 0)
+            return columns;
+        for (String column : columns) {
+            if (column.equalsIgnoreCase(key))
+                return columns;
+        }
+
+        String[] withKey = new String[columns.length + 1];
+        withKey[0] = key;
+        System.arraycopy(columns, 0, withKey, 1, columns.length);
+        return withKey;
+    }
+
+    /**
+     * Copies some columns out of a cached row
+     *
+     * @param row     The cached row
+     * @param columns The columns to copy, or none for every column
+     * @return The copied columns, or null if the row doesn't have one of them
+     */
+    private Map<String, Object> project(Map<String, Object> row, String... columns) {
+        if (columns.length == 0)
+            return new LinkedHashMap<>(row);
+
+        Map<String, Object> projected = new LinkedHashMap<>();
+        columns:
+        for (String column : columns) {
+            for (Map.Entry<String, Object> value : row.entrySet()) {
+                if (value.getKey().equalsIgnoreCase(column)) {
+                    projected.put(column, value.getValue());
+                    continue columns;
+                }
+            }
+            return null;
+        }
+        return projected;
+    }
+
+    /**
+     * Drops rows a write changed from the row cache
+     * <p></p>
+     * <p>Inside a transaction, the rows are dropped again once it ends, so no other</p>
+     * <p>thread keeps the old row it read while the transaction hadn't committed yet.</p>
+     * <p>Inserts don't need this, since only rows which already exist are cached.</p>
+     *
+     * @param invalidation The invalidation to run on the cache
+     */
+    private void invalidate(Consumer<RowCache> invalidation) {
+        RowCache cache = rowCache;
+        if (cache == null)
+            return;
+
+        invalidation.accept(cache);
+        if (isInTransaction())
+            pendingInvalidations.get().add(() -> invalidation.accept(cache));
+    }
+
+    /**
+     * Runs the row cache invalidations deferred until the current thread's transaction ended
+     */
+    private void flushInvalidations() {
+        List<Runnable> pending = pendingInvalidations.get();
+        if (pending.isEmpty())
+            return;
+
+        pendingInvalidations.remove();
+        for (Runnable invalidation : pending)
+            invalidation.run();
+    }
+
+    /**
+     * Runs a query while timing it in the {@link QueryMetrics}
+     *
+     * @param operation  The kind of query, such as {@code select}
+     * @param table      The table the query targets, or null if it doesn't target a single table
+     * @param sql        The query's SQL
+     * @param parameters The query's parameters, for the slow query log
+     * @param query      The function running the query, which may count rows on the timer
+     * @return The function's result
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private <T> T measure(String operation, @Nullable String table, String sql, @Nullable Object parameters, SQLFunction<QueryTimer, T> query) throws SQLException {
+        QueryTimer timer = queryMetrics.start(operation, table, sql, parameters);
+        try {
+            return query.apply(timer);
+        } catch (SQLException | RuntimeException e) {
+            timer.fail();
+            throw e;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Executes a statement's batch while timing it in the {@link QueryMetrics}
+     *
+     * @param operation The kind of batch, such as {@code batch_insert}
+     * @param table     The table the batch writes to
+     * @param sql       The statement's SQL
+     * @param statement The statement
+     * @param rows      The amount of rows in the batch
+     * @return The total amount of updated rows
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private int executeBatch(String operation, String table, String sql, PreparedStatement statement, int rows) throws SQLException {
+        return measure(operation, table, sql + " (" + rows + " rows)", null, timer -> {
+            int updated = sum(statement.executeBatch());
+            timer.wrote(updated);
+            return updated;
+        });
+    }
+
+    /**
+     * Adds up the update counts of an executed batch
+     *
+     * @param counts The update counts
+     * @return The total amount of updated rows
+     */
+    private int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            // Drivers may not know how many rows a statement in a batch changed
+            total += count == java.sql.Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Inserts a row using a connection's cached statement
+     *
+     * @param connection The connection you'd like to use
+     * @param table      The table you'd like to insert to
+     * @param values     A map of keys, and values
+     * @return The amount of inserted rows
+     * @throws SQLException if there is an error
+     */
+    private int insert(PooledConnection connection, String table, Map<String, ?> values) throws SQLException {
+        String statement = insertStatement(table, values.keySet());
+
+        if (debug)
+            Bukkit.getLogger().log(Level.INFO, statement);
+
+        PreparedStatement prepStatement = connection.prepare(statement);
+        int i = 0;
+
+        for (Map.Entry<String, ?> value : values.entrySet()) {
+            i++;
+            bind(connection, prepStatement, i, table, value.getKey(), value.getValue());
+        }
+
+        if (debug)
+            log("Inserting into table: " + table + " with values: " + values);
+        return measure("insert", table, statement, values.values(), timer -> {
+            int inserted = prepStatement.executeUpdate();
+            timer.wrote(inserted);
+            return inserted;
+        });
+    }
+
+    /**
+     * Deletes a row using a connection's cached statement
+     *
+     * @param connection The connection you'd like to use
+     * @param table      The table you'd like to edit
+     * @param key        The key, basically the identifier
+     * @param value      The value, such as the player's name
+     * @return The amount of deleted rows
+     * @throws SQLException if there is an error
+     */
+    private int delete(PooledConnection connection, String table, String key, Object value) throws SQLException {
+        String statement = "DELETE FROM `" + table + "` WHERE `" + key + "` = ?";
+        PreparedStatement prepStatement = connection.prepare(statement);
+        bind(connection, prepStatement, 1, table, key, value);
+
+        if (debug)
+            log("Deleting from table: " + table + " with key: " + key + " and value: " + value);
+        int deleted = measure("delete", table, statement, value, timer -> {
+            int count = prepStatement.executeUpdate();
+            timer.wrote(count);
+            return count;
+        });
+        invalidate(cache -> cache.invalidate(table, key, value));
+        return deleted;
+    }
+
+    /**
+     * Checks if a row exists using a connection's cached statement
+     *
+     * @param connection The connection you'd like to use
+     * @param table      The table you'd like to check
+     * @param key        The key
+     * @param value      The value
+     * @return whether that row exists
+     * @throws SQLException if there is an error
+     */
+    private boolean rowExists(PooledConnection connection, String table, String key, Object value) throws SQLException {
+        String statement = "SELECT 1 FROM `" + table + "` WHERE `" + key + "` = ? LIMIT 1";
+        if (debug)
+            log("Checking if row exists: " + statement + " [" + value + "]");
+
+        PreparedStatement prepStatement = connection.prepare(statement);
+        bind(connection, prepStatement, 1, table, key, value);
+        return measure("exists", table, statement, value, timer -> {
+            try (ResultSet set = prepStatement.executeQuery()) {
+                return set.next();
+            }
+        });
+    }
+
+    /**
+     * Executes a statement which doesn't return any results
+     *
+     * @param statement The statement you'd like to execute
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private void execute(@NotNull String statement) throws SQLException {
+        withConnection(connection -> measure("ddl", null, statement, null, timer -> {
+            new Statement(statement, connection.getConnection()).execute();
+            return null;
+        }));
+
+        // The statement may have changed a table's columns
+        binaryColumns.clear();
+        invalidate(RowCache::invalidateAll);
+    }
+
+    /**
+     * Executes a query and reads its results into memory
+     * <p></p>
+     * <p>The results are detached from the connection, so the connection</p>
+     * <p>can go back to the pool before the caller reads them.</p>
+     *
+     * @param statement The query you'd like to execute
+     * @return The results of the query
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private ResultSet queryDetached(@NotNull String statement) throws SQLException {
+        return withReadConnection(connection -> measure("query", null, statement, null, timer -> {
+            try (java.sql.Statement sqlStatement = connection.getConnection().createStatement();
+                 ResultSet resultSet = sqlStatement.executeQuery(statement)) {
+                CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+                rows.populate(resultSet);
+                timer.read(rows.size());
+                return rows;
+            }
+        }));
+    }
+
+    /**
+     * Opens a SQLite connection and applies the {@link SQLiteSettings} to it
+     *
+     * @param url      The connection url
+     * @param readOnly Whether the connection only reads
+     * @return The connection
+     * @throws SQLException if the connection could not be opened
+     */
+    private Connection openSQLite(String url, boolean readOnly) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (java.sql.Statement statement = connection.createStatement()) {
+            for (String pragma : sqliteSettings.pragmas(readOnly))
+                statement.execute(pragma);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    /**
+     * Binds a value to a statement parameter with the setter matching its type
+     *
+     * @param connection The connection the statement belongs to
+     * @param statement  The statement
+     * @param index      The parameter index, starting at 1
+     * @param table      The table the parameter refers to
+     * @param column     The column the parameter refers to
+     * @param value      The value you'd like to bind
+     * @throws SQLException if the value could not be bound
+     * @see ValueBinder
+     */
+    private void bind(PooledConnection connection, PreparedStatement statement, int index, String table, String column, Object value) throws SQLException {
+        // Only a UUID's encoding depends on the column, so other values skip the lookup
+        boolean binary = value instanceof UUID && isBinary(connection, table, column);
+        if (value instanceof byte[] && compressionThreshold > 0 && ((byte[]) value).length >= compressionThreshold)
+            value = BinaryCompression.compress((byte[]) value, compressionLevel);
+        ValueBinder.bind(statement, index, value, binary);
+    }
+
+    /**
+     * Checks if a column stores binary data
+     * <p></p>
+     * <p>A table's binary columns are read from the database's metadata once,</p>
+     * <p>and read again after this database changes any table's structure.</p>
+     *
+     * @param connection The connection you'd like to use
+     * @param table      The table
+     * @param column     The column
+     * @return Whether the column stores binary data
+     * @throws SQLException if there is an error reading the table's metadata
+     */
+    private boolean isBinary(PooledConnection connection, String table, String column) throws SQLException {
+        Set<String> columns = binaryColumns.get(table);
+        if (columns == null) {
+            columns = new HashSet<>();
+            boolean found = false;
+
+            Connection raw = connection.getConnection();
+            try (ResultSet set = raw.getMetaData().getColumns(raw.getCatalog(), null, table, null)) {
+                while (set.next()) {
+                    found = true;
+                    if (ValueBinder.isBinary(set.getInt("DATA_TYPE"), set.getString("TYPE_NAME")))
+                        columns.add(set.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+
+            // A table which doesn't exist yet isn't remembered, nor one read from a replica which may lag behind a change
+            ReplicaSet replicas = this.replicas;
+            if (found && (replicas == null || !replicas.isReplica(connection)))
+                binaryColumns.put(table, columns);
+        }
+        return columns.contains(column.toLowerCase());
+    }
+
+    /**
+     * Reads the names of a table's columns, in order
+     *
+     * @param connection The connection you'd like to use
+     * @param table      The table
+     * @return The column names
+     * @throws SQLException if there is an error reading the table's metadata, or the table doesn't exist
+     */
+    private List<String> columnsOf(PooledConnection connection, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        Connection raw = connection.getConnection();
+        try (ResultSet set = raw.getMetaData().getColumns(raw.getCatalog(), null, table, null)) {
+            while (set.next())
+                columns.add(set.getString("COLUMN_NAME"));
+        }
+
+        if (columns.isEmpty())
+            throw new SQLException("Table " + table + " doesn't exist");
+        return columns;
+    }
+
+    /**
+     * Checks if any of a table's columns stores binary data
+     *
+     * @param connection The connection you'd like to use
+     * @param table      The table
+     * @param columns    The columns you'd like to check
+     * @return Whether any of the columns stores binary data
+     * @throws SQLException if there is an error reading the table's metadata
+     */
+    private boolean hasBinaryColumns(PooledConnection connection, String table, Collection<String> columns) throws SQLException {
+        for (String column : columns) {
+            if (isBinary(connection, table, column))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Inserts or updates a single row
+     *
+     * @param table      The table
+     * @param keys       The key columns
+     * @param values     The row's values
+     * @param increments The columns added onto an existing row instead of overwriting it
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private void upsert(String table, List<String> keys, Map<String, ?> values, Set<String> increments) throws SQLException {
+        List<String> columns = new ArrayList<>(values.keySet());
+        String statement = upsertStatement(table, columns, keys, increments);
+        if (debug)
+            log("Upserting into table: " + table + " with values: " + values);
+
+        withConnection(connection -> {
+            PreparedStatement prepStatement = connection.prepare(statement);
+            for (int i = 0; i < columns.size(); i++)
+                bind(connection, prepStatement, i + 1, table, columns.get(i), values.get(columns.get(i)));
+
+            return measure("upsert", table, statement, values.values(), timer -> {
+                int updated = prepStatement.executeUpdate();
+                timer.wrote(updated);
+                return updated;
+            });
+        });
+        invalidate(cache -> cache.invalidate(table, values));
+    }
+
+    /**
+     * Inserts or updates many rows, in batches
+     *
+     * @param table      The table
+     * @param keys       The key columns
+     * @param increments The columns added onto an existing row instead of overwriting it
+     * @param rows       The rows
+     * @param batchSize  The maximum amount of rows sent per batch
+     * @return The update count for every batch
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private int[] upsertBatch(String table, List<String> keys, Set<String> increments, List<? extends Map<String, ?>> rows, int batchSize) throws SQLException {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+        if (rows.isEmpty())
+            return new int[0];
+
+        List<String> columns = batchColumns("upsert", table, rows);
+        String statement = upsertStatement(table, columns, keys, increments);
+        if (debug)
+            log("Batch upserting " + rows.size() + " rows into table: " + table + " with batch size: " + batchSize);
+
+        int[] counts = writeBatch("batch_upsert", table, statement, columns, rows, batchSize);
+        invalidate(cache -> cache.invalidate(table));
+        return counts;
+    }
+
+    /**
+     * Sends rows through a statement in batches, inside a transaction
+     *
+     * @param operation The kind of batch, such as {@code batch_insert}
+     * @param table     The table
+     * @param statement The statement, with a placeholder for every column in order
+     * @param columns   The columns
+     * @param rows      The rows
+     * @param batchSize The maximum amount of rows sent per batch
+     * @return The update count for every batch
+     * @throws SQLException if there is an error communicating with the database
+     */
+    private int[] writeBatch(String operation, String table, String statement, List<String> columns, List<? extends Map<String, ?>> rows, int batchSize) throws SQLException {
+        return withConnection(connection -> atomically(connection, () -> {
+            PreparedStatement prepStatement = connection.prepare(statement);
+            int[] counts = new int[(rows.size() + batchSize - 1) / batchSize];
+            int batch = 0;
+            int pending = 0;
+
+            try {
+                for (Map<String, ?> row : rows) {
+                    for (int i = 0; i < columns.size(); i++)
+                        bind(connection, prepStatement, i + 1, table, columns.get(i), row.get(columns.get(i)));
+                    prepStatement.addBatch();
+
+                    if (++pending == batchSize) {
+                        counts[batch++] = executeBatch(operation, table, statement, prepStatement, pending);
+                        pending = 0;
+                    }
+                }
+
+                if (pending > 0)
+                    counts[batch] = executeBatch(operation, table, statement, prepStatement, pending);
+            } finally {
+                prepStatement.clearBatch();
+            }
+
+            return counts;
+        }));
+    }
+
+    /**
+     * Gets the columns of a batch, checking every row has the same ones
+     *
+     * @param operation The kind of batch, for the error message
+     * @param table     The table
+     * @param rows      The rows, which mustn't be empty
+     * @return The columns of the first row
+     * @throws IllegalArgumentException if a row has different columns
+     */
+    private List<String> batchColumns(String operation, String table, List<? extends Map<String, ?>> rows) {
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        for (Map<String, ?> row : rows) {
+            if (row.size() != columns.size() || !row.keySet().containsAll(columns))
+                throw new IllegalArgumentException("Every row in a batch " + operation + " into " + table + " must have the columns " + columns);
+        }
+        return columns;
+    }
+
+    /**
+     * Check whether a server can refer to the inserted row through an alias
+     * <p></p>
+     * <p>MySQL added {@code INSERT ... AS new} in 8.0.19 and deprecated {@code VALUES(column)}</p>
+     * <p>in 8.0.20. MariaDB reports itself as MySQL to MySQL's driver, but only has {@code VALUES()}.</p>
+     *
+     * @param meta The server's metadata
+     * @return Whether {@code ON DUPLICATE KEY UPDATE} may use a row alias
+     * @throws SQLException if the metadata could not be read
+     */
+    private static boolean supportsRowAlias(DatabaseMetaData meta) throws SQLException {
+        String version = meta.getDatabaseProductVersion();
+        if (!"MySQL".equalsIgnoreCase(meta.getDatabaseProductName()) || version == null || version.toLowerCase(Locale.ROOT).contains("mariadb"))
+            return false;
+
+        String[] parts = version.split("[^0-9]+");
+        try {
+            int major = Integer.parseInt(parts[0]);
+            int minor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            int patch = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
+            return major > 8 || major == 8 && (minor > 0 || patch >= 19);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Builds an {@code INSERT} statement which updates the row with the same key instead of failing
+     * <p></p>
+     * <p>Only the inserted values are bound, so one statement serves every row of a batch.</p>
+     * <p>Incremented columns treat a null value on the existing row as 0.</p>
+     * <p>MySQL servers which take a row alias read the inserted values through it, older ones through {@code VALUES()}.</p>
+     *
+     * @param table      The table
+     * @param columns    The inserted columns
+     * @param keys       The key columns
+     * @param increments The columns added onto an existing row instead of overwriting it
+     * @return The statement
+     * @throws IllegalArgumentException if a key or incremented column isn't inserted
+     */
+    private String upsertStatement(String table, List<String> columns, List<String> keys, Set<String> increments) {
+        if (keys.isEmpty())
+            throw new IllegalArgumentException("An upsert into " + table + " needs at least one key column");
+        if (!columns.containsAll(keys))
+            throw new IllegalArgumentException("An upsert into " + table + " must set its key columns " + keys);
+        if (!columns.containsAll(increments))
+            throw new IllegalArgumentException("An upsert into " + table + " must set its incremented columns " + increments);
+
+        boolean mysql = sqlLiteFile == null;
+        List<String> assignments = new ArrayList<>();
+        for (String column : columns) {
+            if (keys.contains(column))
+                continue;
+
+            String quoted = "`" + column + "`";
+            String inserted = !mysql ? "excluded." + quoted : rowAlias ? "new." + quoted : "values(" + quoted + ")";
+            assignments.add(increments.contains(column)
+                    ? quoted + " = coalesce(" + quoted + ", 0) + " + inserted
+                    : quoted + " = " + inserted);
+        }
+
+        String insert = insertStatement(table, columns);
+        StringBuilder statement = new StringBuilder(insert.substring(0, insert.length() - 1));
+        if (mysql) {
+            // MySQL can't ignore a duplicate without an assignment, so the key is assigned to itself
+            if (assignments.isEmpty())
+                assignments.add("`" + keys.get(0) + "` = `" + keys.get(0) + "`");
+            if (rowAlias)
+                statement.append(" as new");
+            statement.append(" on duplicate key update ").append(String.join(", ", assignments));
+        } else {
+            statement.append(" on conflict (");
+            for (int i = 0; i < keys.size(); i++)
+                statement.append(i > 0 ? ", " : "").append("`").append(keys.get(i)).append("`");
+            statement.append(assignments.isEmpty() ? ") do nothing" : ") do update set " + String.join(", ", assignments));
+        }
+
+        return statement.append(";").toString();
+    }
+
+    /**
+     * Builds an {@code INSERT} statement with a placeholder for every column
+     *
+     * @param table   The table you'd like to insert into
+     * @param columns The columns you'd like to insert
+     * @return The statement
+     */
+    private String insertStatement(String table, Collection<String> columns) {
+        StringBuilder statement = new StringBuilder("insert into `" + table + "` (");
+        StringBuilder placeholders = new StringBuilder();
+
+        int i = 0;
+        for (String column : columns) {
+            if (i++ > 0) {
+                statement.append(", ");
+                placeholders.append(", ");
+            }
+            statement.append("`").append(column).append("`");
+            placeholders.append("?");
+        }
+
+        return statement.append(") values (").append(placeholders).append(");").toString();
+    }
+
+    /**
+     * Builds the column list of a {@code SELECT} statement
+     *
+     * @param columns The columns you'd like to select, or none for every column
+     * @return The column list
+     */
+    private String selection(String... columns) {
+        if (columns.length == 0)
+            return "*";
+
+        StringBuilder selection = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0)
+                selection.append(", ");
+            selection.append("`").append(columns[i]).append("`");
+        }
+        return selection.toString();
+    }
+
+    /**
+     * Reads the current row of a {@link ResultSet} into a map
+     *
+     * @param set The result set, positioned on the row you'd like to read
+     * @return A map of column names to values
+     * @throws SQLException if there is an error reading the row
+     */
+    private Map<String, Object> readRow(ResultSet set) throws SQLException {
+        ResultSetMetaData meta = set.getMetaData();
+        int count = meta.getColumnCount();
+
+        Map<String, Object> row = new LinkedHashMap<>(count * 2);
+        for (int i = 1; i <= count; i++)
+            row.put(meta.getColumnLabel(i), readValue(set, i));
+        return row;
+    }
+
+    /**
+     * Creates a function which reads rows into maps, looking up the column labels only once
+     *
+     * @return The function
+     */
+    private SQLFunction<ResultSet, Map<String, Object>> rowReader() {
+        String[][] labels = new String[1][];
+        return set -> {
+            if (labels[0] == null) {
+                ResultSetMetaData meta = set.getMetaData();
+                labels[0] = new String[meta.getColumnCount()];
+                for (int i = 0; i < labels[0].length; i++)
+                    labels[0][i] = meta.getColumnLabel(i + 1);
+            }
+
+            Map<String, Object> row = new LinkedHashMap<>(labels[0].length * 2);
+            for (int i = 0; i < labels[0].length; i++)
+                row.put(labels[0][i], readValue(set, i + 1));
+            return row;
+        };
     }
 
     /**
-     * Checks if a parameter has the {@link games.negative.framework.database.annotation.Column} annotation
+     * Reads a column of the current row, decompressing compressed byte arrays
      *
-     * @param param The parameter you'd like to check
-     * @return Whether the parameter has the {@link games.negative.framework.database.annotation.Column} annotation
+     * @param set   The result set
+     * @param index The column index
+     * @return The value
+     * @throws SQLException if the column could not be read
      */
-    private boolean hasAnnotation(Parameter param) {
-        return param.isAnnotationPresent(games.negative.framework.database.annotation.Column.class);
+    private Object readValue(ResultSet set, int index) throws SQLException {
+        Object value = set.getObject(index);
+        return value instanceof byte[] ? BinaryCompression.decompress((byte[]) value) : value;
     }
 
     /**
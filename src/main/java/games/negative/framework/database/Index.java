@@ -0,0 +1,57 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database;
+
+import lombok.Data;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents a secondary index on a table
+ * <p></p>
+ * <p>Declaring an index on the columns you look rows up by lets the</p>
+ * <p>database server resolve {@code WHERE key = ?} without scanning the whole table.</p>
+ */
+@Data
+public class Index {
+    private final String name;
+    private final List<String> columns;
+    private boolean unique = false;
+
+    public Index(@NotNull String name, @NotNull String... columns) {
+        this.name = name;
+        this.columns = Arrays.asList(columns);
+    }
+
+    public Index(@NotNull String name, @NotNull List<String> columns) {
+        this.name = name;
+        this.columns = columns;
+    }
+}
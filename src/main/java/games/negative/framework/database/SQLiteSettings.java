@@ -0,0 +1,109 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tuning for a SQLite {@link Database}
+ * <p></p>
+ * <p>{@code journalMode} is the journal used for transactions, {@code WAL} lets readers run alongside the writer</p>
+ * <p>{@code synchronous} is how often SQLite waits for data to reach the disk, {@code NORMAL} is safe in {@code WAL} mode</p>
+ * <p>{@code mmapSize} is how many bytes of the file are memory mapped, or 0 to disable it</p>
+ * <p>{@code cacheSize} is the page cache size, in pages if positive and in kibibytes if negative</p>
+ * <p>{@code tempStore} is where temporary tables and indexes are kept</p>
+ * <p>{@code busyTimeout} is how long a connection waits for a lock before failing, in milliseconds</p>
+ * <p>{@code readers} is how many read-only connections are opened next to the single writer in {@code WAL} mode, or 0 for none</p>
+ * <p></p>
+ * <p>The defaults trade the fsync on every commit for one per checkpoint: a power loss may</p>
+ * <p>lose the last commits, but never corrupts the database.</p>
+ */
+@Data
+public class SQLiteSettings {
+    private JournalMode journalMode = JournalMode.WAL;
+    private Synchronous synchronous = Synchronous.NORMAL;
+    private long mmapSize = 256L * 1024 * 1024;
+    private int cacheSize = -16 * 1024;
+    private TempStore tempStore = TempStore.MEMORY;
+    private int busyTimeout = 5000;
+    private int readers = 4;
+
+    /**
+     * Get the statements applying these settings to a new connection
+     *
+     * @param readOnly Whether the connection only reads
+     * @return The {@code PRAGMA} statements
+     */
+    List<String> pragmas(boolean readOnly) {
+        List<String> pragmas = new ArrayList<>();
+        pragmas.add("PRAGMA busy_timeout = " + busyTimeout);
+        if (!readOnly)
+            pragmas.add("PRAGMA journal_mode = " + journalMode);
+        pragmas.add("PRAGMA synchronous = " + synchronous);
+        pragmas.add("PRAGMA mmap_size = " + mmapSize);
+        pragmas.add("PRAGMA cache_size = " + cacheSize);
+        pragmas.add("PRAGMA temp_store = " + tempStore);
+        if (readOnly)
+            pragmas.add("PRAGMA query_only = 1");
+        return pragmas;
+    }
+
+    /**
+     * Check if read-only connections should be opened next to the writer
+     *
+     * @return Whether reads get their own connections
+     */
+    boolean separateReaders() {
+        return journalMode == JournalMode.WAL && readers > 0;
+    }
+
+    public enum JournalMode {
+        DELETE,
+        TRUNCATE,
+        PERSIST,
+        MEMORY,
+        WAL,
+        OFF
+    }
+
+    public enum Synchronous {
+        OFF,
+        NORMAL,
+        FULL,
+        EXTRA
+    }
+
+    public enum TempStore {
+        DEFAULT,
+        FILE,
+        MEMORY
+    }
+}
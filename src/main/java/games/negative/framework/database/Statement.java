@@ -61,6 +61,8 @@ public class Statement {
      */
     @SneakyThrows
     public void execute() {
-        connection.createStatement().execute(getValue());
+        try (java.sql.Statement statement = connection.createStatement()) {
+            statement.execute(getValue());
+        }
     }
 }
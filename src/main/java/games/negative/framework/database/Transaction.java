@@ -0,0 +1,88 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database;
+
+import games.negative.framework.database.pool.PooledConnection;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+
+/**
+ * A transaction started by {@link Database#inTransaction(games.negative.framework.database.function.SQLFunction)}
+ * <p></p>
+ * <p>While the transaction's function runs, every operation the same thread runs on the</p>
+ * <p>{@link Database} uses the transaction's connection, so nothing else has to be passed around:</p>
+ * <pre>
+ *     db.inTransaction(tx -&gt; {
+ *         db.update("balances", new WhereBuilder().key("uuid").value(from), "coins", fromCoins - amount);
+ *         db.update("balances", new WhereBuilder().key("uuid").value(to), "coins", toCoins + amount);
+ *         return null;
+ *     });
+ * </pre>
+ * <p>The function may run more than once if the transaction is retried, so it shouldn't</p>
+ * <p>have side effects outside the database.</p>
+ */
+@Getter
+public class Transaction {
+
+    private final Database database;
+    private final TransactionSettings.Isolation isolation;
+    private final int attempt;
+    private boolean rollbackOnly;
+
+    @Getter(AccessLevel.NONE)
+    private final PooledConnection lease;
+
+    Transaction(@NotNull Database database, @NotNull PooledConnection lease, @NotNull TransactionSettings.Isolation isolation, int attempt) {
+        this.database = database;
+        this.lease = lease;
+        this.isolation = isolation;
+        this.attempt = attempt;
+    }
+
+    /**
+     * Get the connection this transaction runs on
+     * <p></p>
+     * <p>The connection belongs to the transaction, so it must not be closed,</p>
+     * <p>committed or rolled back by the caller.</p>
+     *
+     * @return The transaction's connection
+     */
+    public Connection getConnection() {
+        return lease.getConnection();
+    }
+
+    /**
+     * Roll the transaction back instead of committing it once its function returns
+     */
+    public void setRollbackOnly() {
+        this.rollbackOnly = true;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database;
+
+import lombok.Data;
+import lombok.Getter;
+
+import java.sql.Connection;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Settings for a transaction run with {@link Database#inTransaction(TransactionSettings, games.negative.framework.database.function.SQLFunction)}
+ * <p></p>
+ * <p>{@code isolation} is the isolation level the transaction runs at, {@code DEFAULT} keeps the connection's own</p>
+ * <p>{@code maxRetries} is how often a transaction is retried after a deadlock or serialization failure, or 0 to never retry</p>
+ * <p>{@code initialBackoff} is how long the first retry waits, in milliseconds, doubling for every further retry</p>
+ * <p>{@code maxBackoff} is the longest a retry ever waits, in milliseconds</p>
+ * <p></p>
+ * <p>Every wait is randomly shortened by up to half, so transactions which failed</p>
+ * <p>against each other don't retry in lockstep.</p>
+ */
+@Data
+public class TransactionSettings {
+    private Isolation isolation = Isolation.DEFAULT;
+    private int maxRetries = 3;
+    private long initialBackoff = 20;
+    private long maxBackoff = 1000;
+
+    /**
+     * Get how long to wait before a retry
+     *
+     * @param retry The retry about to happen, starting at 1
+     * @return The time to wait, in milliseconds
+     */
+    long backoff(int retry) {
+        long delay = initialBackoff << Math.min(retry - 1, 20);
+        if (delay <= 0 || delay > maxBackoff)
+            delay = maxBackoff;
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    @Getter
+    public enum Isolation {
+        DEFAULT(-1),
+        READ_UNCOMMITTED(Connection.TRANSACTION_READ_UNCOMMITTED),
+        READ_COMMITTED(Connection.TRANSACTION_READ_COMMITTED),
+        REPEATABLE_READ(Connection.TRANSACTION_REPEATABLE_READ),
+        SERIALIZABLE(Connection.TRANSACTION_SERIALIZABLE);
+
+        private final int level;
+
+        Isolation(int level) {
+            this.level = level;
+        }
+    }
+}
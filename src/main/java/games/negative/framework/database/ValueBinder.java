@@ -0,0 +1,127 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database;
+
+import games.negative.framework.database.mapping.RowMappers;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Binds values to statement parameters with the setter matching their type
+ * <p></p>
+ * <p>Numbers, booleans and byte arrays keep their type instead of being sent as text.</p>
+ * <p>A {@link UUID} is bound as 16 bytes for binary columns and as text otherwise.</p>
+ * <p>Values of any other type are bound as their {@link Object#toString()}.</p>
+ */
+@UtilityClass
+class ValueBinder {
+
+    /**
+     * Bind a value to a statement parameter
+     *
+     * @param statement The statement
+     * @param index     The parameter index, starting at 1
+     * @param value     The value you'd like to bind
+     * @param binary    Whether the value's column stores binary data
+     * @throws SQLException if the value could not be bound
+     */
+    public void bind(@NotNull PreparedStatement statement, int index, @Nullable Object value, boolean binary) throws SQLException {
+        if (value == null)
+            statement.setNull(index, Types.NULL);
+        else if (value instanceof String)
+            statement.setString(index, (String) value);
+        else if (value instanceof Integer)
+            statement.setInt(index, (Integer) value);
+        else if (value instanceof Long)
+            statement.setLong(index, (Long) value);
+        else if (value instanceof Double)
+            statement.setDouble(index, (Double) value);
+        else if (value instanceof Float)
+            statement.setFloat(index, (Float) value);
+        else if (value instanceof Boolean)
+            statement.setBoolean(index, (Boolean) value);
+        else if (value instanceof Short)
+            statement.setShort(index, (Short) value);
+        else if (value instanceof Byte)
+            statement.setByte(index, (Byte) value);
+        else if (value instanceof byte[])
+            statement.setBytes(index, (byte[]) value);
+        else if (value instanceof UUID) {
+            if (binary)
+                statement.setBytes(index, RowMappers.toBytes((UUID) value));
+            else
+                statement.setString(index, value.toString());
+        } else if (value instanceof BigDecimal)
+            statement.setBigDecimal(index, (BigDecimal) value);
+        else if (value instanceof BigInteger)
+            statement.setBigDecimal(index, new BigDecimal((BigInteger) value));
+        else if (value instanceof java.sql.Date || value instanceof java.sql.Time || value instanceof Timestamp)
+            statement.setObject(index, value);
+        else if (value instanceof java.util.Date)
+            statement.setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+        else if (value instanceof Instant)
+            statement.setTimestamp(index, Timestamp.from((Instant) value));
+        else if (value instanceof Enum)
+            statement.setString(index, ((Enum<?>) value).name());
+        else
+            statement.setString(index, value.toString());
+    }
+
+    /**
+     * Check if a column's declared type stores binary data
+     *
+     * @param type     The column's {@link Types} code
+     * @param typeName The column's type name, as reported by the database
+     * @return Whether the column stores binary data
+     */
+    public boolean isBinary(int type, @Nullable String typeName) {
+        switch (type) {
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return true;
+            default:
+                // Some drivers, like SQLite's, report every column as text, so the declared name is checked too
+                if (typeName == null)
+                    return false;
+                String name = typeName.toUpperCase();
+                return name.contains("BINARY") || name.contains("BLOB");
+        }
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database;
+
+import games.negative.framework.util.Disableable;
+import games.negative.framework.util.ForceSavable;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Buffers row updates in memory and writes them to a {@link Database} in batches
+ * <p></p>
+ * <p>Pending writes are coalesced per table and key, keeping only the latest value</p>
+ * <p>of every column, so a balance which changes many times a second costs one</p>
+ * <p>statement per flush. Buffered rows are flushed every {@code flushInterval}</p>
+ * <p>milliseconds, as soon as {@code maxPending} rows are buffered, and when the</p>
+ * <p>buffer is force saved or disabled.</p>
+ * <p></p>
+ * <pre>
+ *     WriteBehindBuffer buffer = new WriteBehindBuffer(db, 5000, 1000);
+ *     buffer.set("players", "uuid", uuid, "coins", String.valueOf(coins));
+ *     ...
+ *     buffer.onDisable();
+ * </pre>
+ * <p></p>
+ * <p>Rows are written with {@link Database#upsertBatch(String, String, List)}, so a row which</p>
+ * <p>doesn't exist yet is inserted, and the key column needs a primary key or unique index.</p>
+ * <p>Writes which fail are put back into the buffer, unless newer values replaced them, until</p>
+ * <p>a row failed {@code maxRetries} flushes in a row. It's then dropped and handed to the</p>
+ * <p>{@code deadLetter} callback, if there is one.</p>
+ * <p></p>
+ * <p>Reads through the {@link Database} don't see buffered values until they're flushed.</p>
+ */
+public class WriteBehindBuffer implements ForceSavable, Disableable {
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    @Getter
+    private final Database database;
+    @Getter
+    private final int maxPending;
+
+    private final Map<Target, Map<Object, Map<String, Object>>> pending = new LinkedHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+
+    private final Map<Target, Map<Object, Integer>> failures = new HashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    private int pendingRows;
+    private volatile boolean disabled;
+
+    /**
+     * The amount of flushes a row may fail before it's dropped
+     */
+    @Getter
+    @Setter
+    private volatile int maxRetries = 10;
+
+    /**
+     * Called with every row which was dropped after failing {@link #getMaxRetries()} flushes, or null
+     */
+    @Getter
+    @Setter
+    @Nullable
+    private volatile Consumer<DroppedRow> deadLetter;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong droppedRows = new AtomicLong();
+
+    /**
+     * Create a write-behind buffer
+     *
+     * @param database      The database you'd like to write to
+     * @param flushInterval How often buffered rows are flushed, in milliseconds
+     * @param maxPending    The amount of buffered rows which triggers a flush straight away
+     */
+    public WriteBehindBuffer(@NotNull Database database, long flushInterval, int maxPending) {
+        this.database = database;
+        this.maxPending = maxPending;
+
+        String name = "Framework-WriteBehind-" + INSTANCES.incrementAndGet();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffer new values for a row
+     *
+     * @param table    The table the row is located in
+     * @param key      The key column the row is matched by
+     * @param keyValue The value of the key, such as the player's uuid
+     * @param values   The columns and values you'd like to set
+     */
+    public void write(@NotNull String table, @NotNull String key, @NotNull Object keyValue, @NotNull Map<String, ?> values) {
+        if (disabled)
+            throw new IllegalStateException("This write-behind buffer has been disabled");
+
+        boolean full;
+        synchronized (pending) {
+            Map<Object, Map<String, Object>> rows = pending.computeIfAbsent(new Target(table, key), target -> new LinkedHashMap<>());
+            Map<String, Object> row = rows.get(keyValue);
+            if (row == null) {
+                row = new LinkedHashMap<>();
+                rows.put(keyValue, row);
+                pendingRows++;
+            }
+            row.putAll(values);
+            full = pendingRows >= maxPending;
+        }
+
+        writes.incrementAndGet();
+        // One flush queued for a full buffer is enough, however many writes arrive before it runs
+        if (full && flushQueued.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    try {
+                        flushQuietly();
+                    } finally {
+                        flushQueued.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The buffer is being disabled, which flushes every buffered row
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Buffer a new value for a single column of a row
+     *
+     * @param table    The table the row is located in
+     * @param key      The key column the row is matched by
+     * @param keyValue The value of the key, such as the player's uuid
+     * @param column   The column you'd like to set
+     * @param value    The value you'd like to set
+     */
+    public void set(@NotNull String table, @NotNull String key, @NotNull Object keyValue, @NotNull String column, @Nullable Object value) {
+        Map<String, Object> values = new HashMap<>();
+        values.put(column, value);
+        write(table, key, keyValue, values);
+    }
+
+    /**
+     * Write every buffered row to the database
+     *
+     * @return The amount of rows which were written
+     * @throws SQLException if there is an error communicating with the database
+     */
+    public int flush() throws SQLException {
+        flushLock.lock();
+        try {
+            Map<Target, Map<Object, Map<String, Object>>> snapshot;
+            synchronized (pending) {
+                if (pending.isEmpty())
+                    return 0;
+
+                snapshot = new LinkedHashMap<>(pending);
+                pending.clear();
+                pendingRows = 0;
+            }
+
+            int written = 0;
+            SQLException failure = null;
+            for (Map.Entry<Target, Map<Object, Map<String, Object>>> entry : snapshot.entrySet()) {
+                Target target = entry.getKey();
+
+                // Rows are batched by the columns they update, since a batch shares one statement
+                Map<Set<String>, Map<Object, Map<String, Object>>> shapes = new LinkedHashMap<>();
+                for (Map.Entry<Object, Map<String, Object>> row : entry.getValue().entrySet())
+                    shapes.computeIfAbsent(new HashSet<>(row.getValue().keySet()), shape -> new LinkedHashMap<>()).put(row.getKey(), row.getValue());
+
+                for (Map<Object, Map<String, Object>> rows : shapes.values()) {
+                    List<Map<String, Object>> upserts = new ArrayList<>(rows.size());
+                    for (Map.Entry<Object, Map<String, Object>> row : rows.entrySet()) {
+                        Map<String, Object> values = new LinkedHashMap<>(row.getValue());
+                        values.put(target.getKey(), row.getKey());
+                        upserts.add(values);
+                    }
+
+                    try {
+                        for (int count : database.upsertBatch(target.getTable(), target.getKey(), upserts, Database.DEFAULT_BATCH_SIZE))
+                            written += count;
+                        flushedRows.addAndGet(rows.size());
+                        succeeded(target, rows);
+                    } catch (SQLException e) {
+                        failedFlushes.incrementAndGet();
+                        requeue(target, rows, e);
+                        if (failure == null)
+                            failure = e;
+                        else
+                            failure.addSuppressed(e);
+                    }
+                }
+            }
+
+            if (failure != null)
+                throw failure;
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Get the amount of rows buffered but not written yet
+     *
+     * @return The amount of buffered rows
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pendingRows;
+        }
+    }
+
+    /**
+     * Get the amount of writes which were buffered
+     *
+     * @return The amount of buffered writes
+     */
+    public long getWriteCount() {
+        return writes.get();
+    }
+
+    /**
+     * Get the amount of rows which were flushed to the database
+     * <p></p>
+     * <p>Comparing this to {@link #getWriteCount()} shows how many writes were coalesced.</p>
+     *
+     * @return The amount of flushed rows
+     */
+    public long getFlushedCount() {
+        return flushedRows.get();
+    }
+
+    /**
+     * Get the amount of flushes which failed
+     *
+     * @return The amount of failed flushes
+     */
+    public long getFailedFlushCount() {
+        return failedFlushes.get();
+    }
+
+    /**
+     * Get the amount of rows which were dropped after failing {@link #getMaxRetries()} flushes
+     *
+     * @return The amount of dropped rows
+     */
+    public long getDroppedCount() {
+        return droppedRows.get();
+    }
+
+    @Override
+    public void forceSave() {
+        flushQuietly();
+    }
+
+    /**
+     * Stop the flush schedule and write every buffered row
+     */
+    @Override
+    public void onDisable() {
+        disabled = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            Bukkit.getLogger().log(Level.SEVERE, "[FrameworkAPI] Failed to flush write-behind buffer", e);
+        }
+    }
+
+    /**
+     * Forgets the failed flushes of rows which were written
+     */
+    private void succeeded(Target target, Map<Object, Map<String, Object>> rows) {
+        synchronized (pending) {
+            Map<Object, Integer> failed = failures.get(target);
+            if (failed == null)
+                return;
+            failed.keySet().removeAll(rows.keySet());
+            if (failed.isEmpty())
+                failures.remove(target);
+        }
+    }
+
+    /**
+     * Puts rows which failed to write back into the buffer, keeping any values written since
+     * <p></p>
+     * <p>Rows which failed too many flushes are dropped instead.</p>
+     */
+    private void requeue(Target target, Map<Object, Map<String, Object>> rows, SQLException cause) {
+        List<DroppedRow> dropped = new ArrayList<>();
+        synchronized (pending) {
+            Map<Object, Map<String, Object>> current = pending.computeIfAbsent(target, t -> new LinkedHashMap<>());
+            Map<Object, Integer> failed = failures.computeIfAbsent(target, t -> new HashMap<>());
+            for (Map.Entry<Object, Map<String, Object>> row : rows.entrySet()) {
+                int attempts = failed.merge(row.getKey(), 1, Integer::sum);
+                if (attempts > maxRetries) {
+                    failed.remove(row.getKey());
+                    dropped.add(new DroppedRow(target.getTable(), target.getKey(), row.getKey(), row.getValue(), cause));
+                    continue;
+                }
+
+                Map<String, Object> newer = current.get(row.getKey());
+                if (newer == null) {
+                    current.put(row.getKey(), row.getValue());
+                    pendingRows++;
+                    continue;
+                }
+
+                Map<String, Object> merged = new LinkedHashMap<>(row.getValue());
+                merged.putAll(newer);
+                current.put(row.getKey(), merged);
+            }
+            if (current.isEmpty())
+                pending.remove(target);
+            if (failed.isEmpty())
+                failures.remove(target);
+        }
+
+        if (dropped.isEmpty())
+            return;
+
+        droppedRows.addAndGet(dropped.size());
+        Bukkit.getLogger().log(Level.SEVERE, "[FrameworkAPI] Dropped " + dropped.size() + " rows of table " + target.getTable() + " from the write-behind buffer after " + maxRetries + " failed flushes");
+        Consumer<DroppedRow> deadLetter = this.deadLetter;
+        if (deadLetter != null) {
+            for (DroppedRow row : dropped)
+                deadLetter.accept(row);
+        }
+    }
+
+    /**
+     * A buffered row which was dropped because it couldn't be written
+     */
+    @Data
+    public static class DroppedRow {
+        private final String table;
+        private final String key;
+        private final Object keyValue;
+        private final Map<String, Object> values;
+        private final SQLException cause;
+    }
+
+    @Data
+    private static class Target {
+        private final String table;
+        private final String key;
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.async;
+
+import games.negative.framework.BasePlugin;
+import games.negative.framework.database.Database;
+import games.negative.framework.database.Transaction;
+import games.negative.framework.database.builder.InsertBuilder;
+import games.negative.framework.database.builder.UpsertBuilder;
+import games.negative.framework.database.builder.general.WhereBuilder;
+import games.negative.framework.database.function.SQLFunction;
+import games.negative.framework.util.Disableable;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A non-blocking view of a {@link Database}
+ * <p></p>
+ * <p>Every operation runs on a small set of dedicated worker lanes and returns a</p>
+ * <p>{@link CompletableFuture}, so the main server thread never waits on the database.</p>
+ * <p></p>
+ * <p>Operations which share an ordering key, such as every keyed operation for the</p>
+ * <p>same table and value, always run on the same lane in the order they were submitted,</p>
+ * <p>so writes for the same player never reorder. Operations without a key are spread</p>
+ * <p>across the lanes. Each lane has a bounded queue, and operations submitted while it's</p>
+ * <p>full fail with a {@link RejectedExecutionException}.</p>
+ * <p></p>
+ * <pre>
+ *     AsyncDatabase async = new AsyncDatabase(db);
+ *     async.sync(async.get("players", "uuid", uuid, "coins"))
+ *             .thenAccept(coins -> player.sendMessage("Coins: " + coins));
+ * </pre>
+ */
+public class AsyncDatabase implements Disableable {
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    @Getter
+    private final Database database;
+    private final Plugin plugin;
+    private final ThreadPoolExecutor[] lanes;
+    private final AtomicInteger nextLane = new AtomicInteger();
+    private final Executor mainThread;
+
+    /**
+     * Create an async view of a database
+     *
+     * @param database      The database you'd like to use
+     * @param plugin        The plugin used to schedule results back onto the main thread
+     * @param lanes         The amount of worker lanes
+     * @param queueCapacity The amount of operations each lane may have queued
+     */
+    public AsyncDatabase(@NotNull Database database, @NotNull Plugin plugin, int lanes, int queueCapacity) {
+        if (lanes <= 0)
+            throw new IllegalArgumentException("Lane count must be positive, got " + lanes);
+
+        this.database = database;
+        this.plugin = plugin;
+        this.lanes = new ThreadPoolExecutor[lanes];
+        this.mainThread = task -> {
+            if (Bukkit.isPrimaryThread())
+                task.run();
+            else
+                Bukkit.getScheduler().runTask(this.plugin, task);
+        };
+
+        int instance = INSTANCES.incrementAndGet();
+        for (int i = 0; i < lanes; i++) {
+            String name = "Framework-Database-Async-" + instance + "-" + i;
+            this.lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), task -> {
+                Thread thread = new Thread(task, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Create an async view of a database with 4 lanes of 1000 queued operations each
+     *
+     * @param database The database you'd like to use
+     * @param plugin   The plugin used to schedule results back onto the main thread
+     */
+    public AsyncDatabase(@NotNull Database database, @NotNull Plugin plugin) {
+        this(database, plugin, 4, 1000);
+    }
+
+    /**
+     * Create an async view of a database with 4 lanes of 1000 queued operations each,
+     * scheduling results back onto the main thread with {@link BasePlugin}
+     *
+     * @param database The database you'd like to use
+     */
+    public AsyncDatabase(@NotNull Database database) {
+        this(database, BasePlugin.getInst());
+    }
+
+    /**
+     * Run an operation on a worker lane
+     *
+     * @param key       The ordering key, or null if the operation doesn't need ordering
+     * @param operation The operation you'd like to run
+     * @return A future completed with the operation's result
+     */
+    @NotNull
+    public <T> CompletableFuture<T> submit(@Nullable Object key, @NotNull Callable<T> operation) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return operation.call();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, lane(key));
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Complete a future on the main server thread
+     * <p></p>
+     * <p>Anything chained onto the returned future runs on the main thread,</p>
+     * <p>so it's safe to use the Bukkit API from it.</p>
+     *
+     * <p>If the result can't be scheduled, because the plugin is disabling, the returned</p>
+     * <p>future fails with the scheduler's exception on the thread which completed the operation.</p>
+     *
+     * @param future The future you'd like to hop back onto the main thread
+     * @return A future completed on the main thread
+     */
+    @NotNull
+    public <T> CompletableFuture<T> sync(@NotNull CompletableFuture<T> future) {
+        // thenApplyAsync would complete a failed future on the thread which failed it
+        CompletableFuture<T> synced = new CompletableFuture<>();
+        future.whenComplete((result, throwable) -> {
+            try {
+                mainThread.execute(() -> {
+                    if (throwable != null)
+                        synced.completeExceptionally(throwable);
+                    else
+                        synced.complete(result);
+                });
+            } catch (RuntimeException e) {
+                // The scheduler refuses tasks while the plugin is disabling, which would leave the future pending
+                if (throwable != null)
+                    e.addSuppressed(throwable);
+                synced.completeExceptionally(e);
+            }
+        });
+        return synced;
+    }
+
+    /**
+     * @see Database#get(String, String, Object, String)
+     */
+    public CompletableFuture<Object> get(@NotNull String table, @NotNull String key, @NotNull Object value, @NotNull String column) {
+        return submit(orderingKey(table, value), () -> database.get(table, key, value, column));
+    }
+
+    /**
+     * @see Database#getRow(String, String, Object, String...)
+     */
+    public CompletableFuture<Map<String, Object>> getRow(@NotNull String table, @NotNull String key, @NotNull Object value, @NotNull String... columns) {
+        return submit(orderingKey(table, value), () -> database.getRow(table, key, value, columns));
+    }
+
+    /**
+     * @see Database#get(String, String, Object, Class)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> get(@NotNull String table, @NotNull String key, @NotNull Object value, @NotNull Class<T> clazz) {
+        return submit(orderingKey(table, value), () -> (T) database.get(table, key, value, clazz));
+    }
+
+    /**
+     * @see Database#getRows(String, String, Collection, String...)
+     */
+    public <K> CompletableFuture<Map<K, Map<String, Object>>> getRows(@NotNull String table, @NotNull String key, @NotNull Collection<K> keys, @NotNull String... columns) {
+        return submit(null, () -> database.getRows(table, key, keys, columns));
+    }
+
+    /**
+     * @see Database#getMany(String, String, Collection, Class)
+     */
+    public <K, T> CompletableFuture<Map<K, T>> getMany(@NotNull String table, @NotNull String key, @NotNull Collection<K> keys, @NotNull Class<T> clazz) {
+        return submit(null, () -> database.getMany(table, key, keys, clazz));
+    }
+
+    /**
+     * @see Database#rowExists(String, String, Object)
+     */
+    public CompletableFuture<Boolean> rowExists(@NotNull String table, @NotNull String key, @NotNull Object value) {
+        return submit(orderingKey(table, value), () -> database.rowExists(table, key, value));
+    }
+
+    /**
+     * @see Database#tableExists(String)
+     */
+    public CompletableFuture<Boolean> tableExists(@NotNull String table) {
+        return submit(null, () -> database.tableExists(table));
+    }
+
+    /**
+     * @see Database#tableExists(boolean, String)
+     */
+    public CompletableFuture<Boolean> tableExists(boolean primary, @NotNull String table) {
+        return submit(null, () -> database.tableExists(primary, table));
+    }
+
+    /**
+     * @see Database#countRows(String)
+     */
+    public CompletableFuture<Integer> countRows(@NotNull String table) {
+        return submit(null, () -> database.countRows(table));
+    }
+
+    /**
+     * Insert a row, ordered after every earlier operation for the same table and value
+     *
+     * @param value   The value of the row's key, such as the player's uuid
+     * @param builder The builder you'd like to insert
+     * @return A future completed once the row is inserted
+     * @see Database#insert(InsertBuilder)
+     */
+    public CompletableFuture<Void> insertOrdered(@NotNull Object value, @NotNull InsertBuilder builder) {
+        return submit(orderingKey(builder.getTable(), value), () -> {
+            database.insert(builder);
+            return null;
+        });
+    }
+
+    /**
+     * @see Database#insert(InsertBuilder)
+     */
+    public CompletableFuture<Void> insert(@NotNull InsertBuilder builder) {
+        return submit(null, () -> {
+            database.insert(builder);
+            return null;
+        });
+    }
+
+    /**
+     * @see Database#insert(String, Map)
+     */
+    public CompletableFuture<Void> insert(@NotNull String table, @NotNull Map<String, ?> values) {
+        return submit(null, () -> {
+            database.insert(table, values);
+            return null;
+        });
+    }
+
+    /**
+     * @see Database#insert(String, Object)
+     */
+    public CompletableFuture<Void> insert(@NotNull String table, @NotNull Object object) {
+        if (object instanceof InsertBuilder)
+            throw new IllegalArgumentException("A builder names its own table, use insert(InsertBuilder) or insertOrdered(Object, InsertBuilder)");
+        return submit(null, () -> {
+            database.insert(table, object);
+            return null;
+        });
+    }
+
+    /**
+     * Insert a {@code Java Object}, ordered after every earlier operation for the same table and value
+     *
+     * @param table  The table you'd like to insert to
+     * @param value  The value of the object's key, such as the player's uuid
+     * @param object The object you'd like to insert
+     * @return A future completed once the object is inserted
+     * @see Database#insert(String, Object)
+     */
+    public CompletableFuture<Void> insertOrdered(@NotNull String table, @NotNull Object value, @NotNull Object object) {
+        return submit(orderingKey(table, value), () -> {
+            database.insert(table, object);
+            return null;
+        });
+    }
+
+    /**
+     * @see Database#insertBatch(Collection)
+     */
+    public CompletableFuture<int[]> insertBatch(@NotNull Collection<InsertBuilder> builders) {
+        return submit(null, () -> database.insertBatch(builders));
+    }
+
+    /**
+     * @see Database#replace(String, String, Object, Map)
+     */
+    public CompletableFuture<Void> replace(@NotNull String table, @NotNull String key, @NotNull Object value, @NotNull Map<String, ?> values) {
+        return submit(orderingKey(table, value), () -> {
+            database.replace(table, key, value, values);
+            return null;
+        });
+    }
+
+    /**
+     * @see Database#update(String, WhereBuilder, String, Object)
+     */
+    public CompletableFuture<Void> update(@NotNull String table, @NotNull WhereBuilder whereBuilder, @NotNull String column, @Nullable Object newColumn) {
+        return submit(orderingKey(table, whereBuilder.getTypedValue()), () -> {
+            database.update(table, whereBuilder, column, newColumn);
+            return null;
+        });
+    }
+
+    /**
+     * @see Database#upsert(String, String, Map)
+     */
+    public CompletableFuture<Void> upsert(@NotNull String table, @NotNull String key, @NotNull Map<String, ?> values) {
+        return submit(orderingKey(table, values.get(key)), () -> {
+            database.upsert(table, key, values);
+            return null;
+        });
+    }
+
+    /**
+     * @see Database#upsert(UpsertBuilder)
+     */
+    public CompletableFuture<Void> upsert(@NotNull UpsertBuilder builder) {
+        Object value = builder.getKeys().isEmpty() ? null : builder.getValues().get(builder.getKeys().get(0));
+        return submit(orderingKey(builder.getTable(), value), () -> {
+            database.upsert(builder);
+            return null;
+        });
+    }
+
+    /**
+     * @see Database#increment(String, WhereBuilder, String, Number)
+     */
+    public CompletableFuture<Boolean> increment(@NotNull String table, @NotNull WhereBuilder whereBuilder, @NotNull String column, @NotNull Number amount) {
+        return submit(orderingKey(table, whereBuilder.getTypedValue()), () -> database.increment(table, whereBuilder, column, amount));
+    }
+
+    /**
+     * @see Database#delete(String, String, Object)
+     */
+    public CompletableFuture<Void> delete(@NotNull String table, @NotNull String key, @NotNull Object value) {
+        return submit(orderingKey(table, value), () -> {
+            database.delete(table, key, value);
+            return null;
+        });
+    }
+
+    /**
+     * Run a function inside a transaction, ordered after every earlier operation with the same key
+     *
+     * @param key      The ordering key, or null if the transaction doesn't need ordering
+     * @param function The function you'd like to run, which may run more than once
+     * @return A future completed with the function's result once the transaction committed
+     * @see Database#inTransaction(SQLFunction)
+     */
+    public <T> CompletableFuture<T> inTransaction(@Nullable Object key, @NotNull SQLFunction<Transaction, T> function) {
+        return submit(key, () -> database.inTransaction(function));
+    }
+
+    /**
+     * Stop accepting operations and wait for queued ones to finish
+     *
+     * @param timeout How long you'd like to wait
+     * @param unit    The unit of the timeout
+     * @return Whether every queued operation finished in time
+     */
+    public boolean shutdown(long timeout, @NotNull TimeUnit unit) {
+        for (ThreadPoolExecutor lane : lanes)
+            lane.shutdown();
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                if (!lane.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS))
+                    return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void onDisable() {
+        shutdown(30, TimeUnit.SECONDS);
+    }
+
+    private Executor lane(@Nullable Object key) {
+        if (key == null)
+            return lanes[Math.floorMod(nextLane.getAndIncrement(), lanes.length)];
+        return lanes[Math.floorMod(key.hashCode(), lanes.length)];
+    }
+
+    private String orderingKey(String table, Object value) {
+        return table + ':' + value;
+    }
+}
@@ -27,21 +27,73 @@
 
 package games.negative.framework.database.builder;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Getter
 public class InsertBuilder {
 
     private String table;
-    private HashMap<String, String> values = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private HashMap<String, Object> values = new LinkedHashMap<>();
 
-    public InsertBuilder value(String column, String value) {
+    /**
+     * Set a column's value
+     * <p></p>
+     * <p>The value is bound with the setter matching its type, so numbers, booleans,</p>
+     * <p>byte arrays and {@link java.util.UUID}s aren't converted to text.</p>
+     *
+     * @param column The column
+     * @param value  The value
+     * @return This builder
+     */
+    public InsertBuilder value(String column, Object value) {
         values.put(column, value);
         return this;
     }
 
+    /**
+     * Set a column's value
+     *
+     * @param column The column
+     * @param value  The value
+     * @return This builder
+     * @deprecated kept for plugins compiled against the text-only builder, use {@link #value(String, Object)}
+     */
+    @Deprecated
+    public InsertBuilder value(String column, String value) {
+        return value(column, (Object) value);
+    }
+
+    /**
+     * Get the values of this row, in the order they were set
+     *
+     * @return The column values, keeping their types
+     */
+    public HashMap<String, Object> getTypedValues() {
+        return values;
+    }
+
+    /**
+     * Get the values of this row as text
+     * <p></p>
+     * <p>This is a copy, so changing it doesn't change the builder.</p>
+     *
+     * @return The column values, converted with {@link String#valueOf(Object)}
+     * @deprecated the values aren't always text any more, use {@link #getTypedValues()}
+     */
+    @Deprecated
+    public HashMap<String, String> getValues() {
+        HashMap<String, String> text = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet())
+            text.put(entry.getKey(), entry.getValue() == null ? null : String.valueOf(entry.getValue()));
+        return text;
+    }
+
     public InsertBuilder table(String table) {
         this.table = table;
         return this;
@@ -29,9 +29,12 @@ package games.negative.framework.database.builder;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
-@AllArgsConstructor
 public class LoginBuilder {
 
     private String ip;
@@ -40,4 +43,36 @@ public class LoginBuilder {
     private String password;
     private String database;
 
+    /**
+     * The read replicas of the database, which use the same credentials and database name
+     */
+    private final List<Host> replicas = new ArrayList<>();
+
+    public LoginBuilder(String ip, int port, String username, String password, String database) {
+        this.ip = ip;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.database = database;
+    }
+
+    /**
+     * Add a read replica
+     *
+     * @param ip   The ip of the replica
+     * @param port The port the replica is hosted on
+     * @return This builder
+     */
+    public LoginBuilder replica(@NotNull String ip, int port) {
+        replicas.add(new Host(ip, port));
+        return this;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Host {
+        private String ip;
+        private int port;
+    }
+
 }
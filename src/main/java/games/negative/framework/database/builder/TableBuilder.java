@@ -29,9 +29,11 @@ package games.negative.framework.database.builder;
 
 import games.negative.framework.database.Column;
 import games.negative.framework.database.ColumnType;
+import games.negative.framework.database.Index;
 import lombok.Data;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -43,6 +45,7 @@ import java.util.List;
 public class TableBuilder {
     private final String name;
     private final List<Column> columns;
+    private final List<Index> indexes = new ArrayList<>();
     private String primaryKey;
 
     public void addColumn(@NotNull ColumnType type, @NotNull String name) {
@@ -52,4 +55,12 @@ public class TableBuilder {
     public void addColumn(@NotNull Column column) {
         columns.add(column);
     }
+
+    public void addIndex(@NotNull String name, @NotNull String... columns) {
+        indexes.add(new Index(name, columns));
+    }
+
+    public void addIndex(@NotNull Index index) {
+        indexes.add(index);
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.builder;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds a row which is inserted, or updated if a row with the same key already exists
+ * <p></p>
+ * <p>Columns set with {@link #value(String, Object)} are overwritten on an existing row,</p>
+ * <p>and columns set with {@link #increment(String, Number)} are added onto it, so counters</p>
+ * <p>can be bumped atomically without reading them first:</p>
+ * <pre>
+ *     db.upsert(new UpsertBuilder()
+ *             .table("stats")
+ *             .key("uuid")
+ *             .value("uuid", uuid)
+ *             .value("name", name)
+ *             .increment("kills", 1));
+ * </pre>
+ */
+@Getter
+public class UpsertBuilder {
+
+    private String table;
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final Set<String> increments = new LinkedHashSet<>();
+
+    public UpsertBuilder table(String table) {
+        this.table = table;
+        return this;
+    }
+
+    /**
+     * Set the columns which identify a row
+     * <p></p>
+     * <p>They need a primary key or unique index, and their values must be set too.</p>
+     *
+     * @param columns The key columns
+     * @return This builder
+     */
+    public UpsertBuilder key(String... columns) {
+        keys.clear();
+        keys.addAll(Arrays.asList(columns));
+        return this;
+    }
+
+    /**
+     * Set a column's value, which overwrites the value of an existing row
+     *
+     * @param column The column
+     * @param value  The value
+     * @return This builder
+     */
+    public UpsertBuilder value(String column, Object value) {
+        values.put(column, value);
+        increments.remove(column);
+        return this;
+    }
+
+    /**
+     * Add an amount onto a column of an existing row, or insert the amount if there is no row
+     *
+     * @param column The column
+     * @param amount The amount, which may be negative
+     * @return This builder
+     */
+    public UpsertBuilder increment(String column, Number amount) {
+        values.put(column, amount);
+        increments.add(column);
+        return this;
+    }
+
+}
@@ -27,21 +27,48 @@
 
 package games.negative.framework.database.builder.general;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
 @Getter
 public class WhereBuilder {
 
     private String key;
-    private String value;
+    @Getter(AccessLevel.NONE)
+    private Object value;
 
     public WhereBuilder key(String key) {
         this.key = key;
         return this;
     }
 
-    public WhereBuilder value(String value) {
+    public WhereBuilder value(Object value) {
         this.value = value;
         return this;
     }
+
+    /**
+     * @deprecated kept for plugins compiled against the text-only builder, use {@link #value(Object)}
+     */
+    @Deprecated
+    public WhereBuilder value(String value) {
+        return value((Object) value);
+    }
+
+    /**
+     * Get the value the key column is matched against
+     *
+     * @return The value, keeping its type
+     */
+    public Object getTypedValue() {
+        return value;
+    }
+
+    /**
+     * @deprecated the value isn't always text any more, use {@link #getTypedValue()}
+     */
+    @Deprecated
+    public String getValue() {
+        return value == null ? null : String.valueOf(value);
+    }
 }
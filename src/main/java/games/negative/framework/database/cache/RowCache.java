@@ -0,0 +1,356 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.cache;
+
+import games.negative.framework.database.Database;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded in-memory cache of rows, keyed by table, key column and key value
+ * <p></p>
+ * <p>Once set on a {@link Database} with {@link Database#setRowCache(RowCache)}, rows read by key</p>
+ * <p>are kept here, and writes made through the same database drop the rows they change.</p>
+ * <p>Writes made by anything else, such as another server, aren't seen until a row expires.</p>
+ * <p></p>
+ * <p>The cache is split into segments which each evict their least recently used rows,</p>
+ * <p>so lookups on different segments never wait on each other.</p>
+ * <pre>
+ *     db.setRowCache(new RowCache(new RowCacheSettings()));
+ *     ...
+ *     RowCacheStats stats = db.getRowCache().getStats();
+ * </pre>
+ */
+public class RowCache {
+
+    @Getter
+    private final RowCacheSettings settings;
+    private final Segment[] segments;
+    private final long expireAfterNanos;
+
+    /**
+     * The key columns rows of each table were cached by
+     */
+    private final Map<String, Set<String>> keyColumns = new ConcurrentHashMap<>();
+
+    /**
+     * Counts the invalidations of each table, so a row read before a write isn't cached after it
+     */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public RowCache(@NotNull RowCacheSettings settings) {
+        if (settings.getMaximumSize() <= 0)
+            throw new IllegalArgumentException("Maximum size must be positive, got " + settings.getMaximumSize());
+
+        this.settings = settings;
+        this.expireAfterNanos = TimeUnit.MILLISECONDS.toNanos(settings.getExpireAfterWrite());
+
+        int count = Math.max(1, Math.min(settings.getSegments(), settings.getMaximumSize()));
+        int capacity = (settings.getMaximumSize() + count - 1) / count;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++)
+            segments[i] = new Segment(capacity);
+    }
+
+    /**
+     * Get a cached row
+     *
+     * @param table  The table
+     * @param column The key column
+     * @param value  The key value
+     * @return The row, which must not be modified, or null if it isn't cached
+     */
+    @Nullable
+    public Map<String, Object> get(@NotNull String table, @NotNull String column, @NotNull Object value) {
+        Key key = new Key(table, column, value);
+        Segment segment = segment(key);
+        synchronized (segment) {
+            CachedRow entry = segment.get(key);
+            if (entry != null && isExpired(entry, System.nanoTime())) {
+                segment.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+
+            hits.increment();
+            return entry.row;
+        }
+    }
+
+    /**
+     * Get the stamp a row read from a table must be cached with
+     * <p></p>
+     * <p>Take it before reading the row, so {@link #put(String, String, Object, Map, long)}</p>
+     * <p>can tell whether the table was written to while the row was read.</p>
+     *
+     * @param table The table
+     * @return The table's stamp
+     */
+    public long stamp(@NotNull String table) {
+        return generation(table).get();
+    }
+
+    /**
+     * Cache a row read from the database
+     * <p></p>
+     * <p>The row is dropped if its table was written to since the stamp was taken.</p>
+     *
+     * @param table  The table
+     * @param column The key column
+     * @param value  The key value
+     * @param row    The row
+     * @param stamp  The table's stamp from before the row was read
+     */
+    public void put(@NotNull String table, @NotNull String column, @NotNull Object value, @NotNull Map<String, Object> row, long stamp) {
+        keyColumns.computeIfAbsent(table, t -> ConcurrentHashMap.newKeySet()).add(column.toLowerCase(Locale.ROOT));
+
+        Key key = new Key(table, column, value);
+        CachedRow entry = new CachedRow(Collections.unmodifiableMap(new LinkedHashMap<>(row)), System.nanoTime());
+        Segment segment = segment(key);
+        synchronized (segment) {
+            if (generation(table).get() == stamp)
+                segment.put(key, entry);
+        }
+    }
+
+    /**
+     * Drop the row with a key value
+     * <p></p>
+     * <p>If rows of the table were also cached by other key columns, they can't be</p>
+     * <p>matched to the row, so the whole table is dropped.</p>
+     *
+     * @param table  The table
+     * @param column The key column
+     * @param value  The key value
+     */
+    public void invalidate(@NotNull String table, @NotNull String column, @Nullable Object value) {
+        Set<String> columns = keyColumns.get(table);
+        if (value == null || columns == null || columns.size() > 1 || !columns.contains(column.toLowerCase(Locale.ROOT))) {
+            invalidate(table);
+            return;
+        }
+
+        Key key = new Key(table, column, value);
+        Segment segment = segment(key);
+        synchronized (segment) {
+            generation(table).incrementAndGet();
+            if (segment.remove(key) != null)
+                invalidations.increment();
+        }
+    }
+
+    /**
+     * Drop the cached row a written row may have replaced
+     *
+     * @param table The table
+     * @param row   The written row, a map of columns and values
+     */
+    public void invalidate(@NotNull String table, @NotNull Map<String, ?> row) {
+        Set<String> columns = keyColumns.get(table);
+        if (columns == null || columns.size() != 1) {
+            invalidate(table);
+            return;
+        }
+
+        String column = columns.iterator().next();
+        for (Map.Entry<String, ?> value : row.entrySet()) {
+            if (value.getKey().equalsIgnoreCase(column)) {
+                invalidate(table, column, value.getValue());
+                return;
+            }
+        }
+        invalidate(table);
+    }
+
+    /**
+     * Drop every cached row of a table
+     *
+     * @param table The table
+     */
+    public void invalidate(@NotNull String table) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                generation(table).incrementAndGet();
+                Iterator<Key> keys = segment.keySet().iterator();
+                while (keys.hasNext()) {
+                    if (keys.next().table.equals(table)) {
+                        keys.remove();
+                        invalidations.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop every cached row
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                generations.values().forEach(AtomicLong::incrementAndGet);
+                invalidations.add(segment.size());
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Get the amount of cached rows, including expired ones which weren't dropped yet
+     *
+     * @return The amount of cached rows
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Take a snapshot of this cache's statistics
+     *
+     * @return The statistics
+     */
+    @NotNull
+    public RowCacheStats getStats() {
+        return new RowCacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(), size());
+    }
+
+    private boolean isExpired(CachedRow entry, long now) {
+        return expireAfterNanos > 0 && now - entry.cachedAt >= expireAfterNanos;
+    }
+
+    private AtomicLong generation(String table) {
+        return generations.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    private Segment segment(Key key) {
+        return segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+    }
+
+    /**
+     * A part of the cache, ordered from least to most recently used
+     */
+    private final class Segment extends LinkedHashMap<Key, CachedRow> {
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedRow> eldest) {
+            if (size() <= capacity)
+                return false;
+
+            if (isExpired(eldest.getValue(), System.nanoTime()))
+                expirations.increment();
+            else
+                evictions.increment();
+            return true;
+        }
+    }
+
+    private static final class CachedRow {
+
+        private final Map<String, Object> row;
+        private final long cachedAt;
+
+        private CachedRow(Map<String, Object> row, long cachedAt) {
+            this.row = row;
+            this.cachedAt = cachedAt;
+        }
+    }
+
+    /**
+     * Identifies a row, comparing the key column without case and the key value by its text
+     * <p></p>
+     * <p>That way {@code 5} and {@code 5L}, or a {@link java.util.UUID} and its string, find the same row.</p>
+     */
+    private static final class Key {
+
+        private final String table;
+        private final String column;
+        private final String value;
+        private final int hash;
+
+        private Key(String table, String column, Object value) {
+            this.table = table;
+            this.column = column.toLowerCase(Locale.ROOT);
+            this.value = value instanceof byte[] ? Base64.getEncoder().encodeToString((byte[]) value) : String.valueOf(value);
+            this.hash = Objects.hash(this.table, this.column, this.value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+
+            Key key = (Key) o;
+            return table.equals(key.table) && column.equals(key.column) && value.equals(key.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.cache;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for a {@link RowCache}
+ * <p></p>
+ * <p>{@code maximumSize} is the most rows the cache holds, the least recently used rows are evicted past it</p>
+ * <p>{@code expireAfterWrite} is how long a row stays cached after it was read from the database, in milliseconds, or 0 to never expire</p>
+ * <p>{@code segments} is how many independently locked segments the cache is split into, to spread out contention</p>
+ */
+@Data
+public class RowCacheSettings {
+    private int maximumSize = 10_000;
+    private long expireAfterWrite = TimeUnit.MINUTES.toMillis(5);
+    private int segments = 16;
+}
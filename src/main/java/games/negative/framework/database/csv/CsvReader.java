@@ -0,0 +1,182 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.csv;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads CSV records from a {@link Reader}
+ * <p></p>
+ * <p>Quoted values may contain the delimiter, doubled quotes and line breaks.</p>
+ * <p>An empty unquoted field is read as null and {@code ""} as an empty string.</p>
+ * <p>Both {@code \n} and {@code \r\n} line endings are accepted.</p>
+ */
+public class CsvReader implements AutoCloseable {
+
+    private final Reader reader;
+    private final char delimiter;
+
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    private final List<String> record = new ArrayList<>();
+    private final StringBuilder value = new StringBuilder();
+    private long line = 1;
+
+    public CsvReader(@NotNull Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Open a buffered reader from a file
+     *
+     * @param path     The file you'd like to read
+     * @param settings The settings, which decide the delimiter, buffer size and compression
+     * @return The reader
+     * @throws IOException if the file could not be opened
+     */
+    @NotNull
+    public static CsvReader open(@NotNull Path path, @NotNull CsvSettings settings) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel), settings.getBufferSize());
+        try {
+            if (settings.isGzip())
+                in = new GZIPInputStream(in, settings.getBufferSize());
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+
+        return new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8), settings.getDelimiter());
+    }
+
+    /**
+     * Read the next record
+     *
+     * @return The record's values, or null at the end of the input
+     * @throws IOException if the input could not be read or is malformed
+     */
+    @Nullable
+    public String[] read() throws IOException {
+        int c = next();
+        if (c == -1)
+            return null;
+
+        record.clear();
+        while (true) {
+            value.setLength(0);
+            boolean quoted = false;
+
+            if (c == '"') {
+                quoted = true;
+                long start = line;
+                while (true) {
+                    c = next();
+                    if (c == -1)
+                        throw new IOException("Unterminated quoted value starting on line " + start);
+                    if (c == '"') {
+                        c = next();
+                        if (c != '"')
+                            break;
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    value.append((char) c);
+                }
+            } else {
+                while (c != delimiter && c != '\n' && c != '\r' && c != -1) {
+                    value.append((char) c);
+                    c = next();
+                }
+            }
+
+            record.add(quoted || value.length() > 0 ? value.toString() : null);
+
+            if (c == delimiter) {
+                c = next();
+                continue;
+            }
+            if (c == '\r') {
+                // Accepts \r\n, and a lone \r as a line break of its own
+                c = next();
+                if (c != '\n' && c != -1) {
+                    position--;
+                    c = '\n';
+                }
+            }
+            if (c == '\n' || c == -1) {
+                line++;
+                return record.toArray(new String[0]);
+            }
+            throw new IOException("Unexpected character '" + (char) c + "' after a quoted value on line " + line);
+        }
+    }
+
+    /**
+     * Get the line the reader is on
+     *
+     * @return The line number, starting at 1
+     */
+    public long getLine() {
+        return line;
+    }
+
+    private int next() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.csv;
+
+import lombok.Data;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Settings for exporting and importing tables as CSV
+ * <p></p>
+ * <p>{@code delimiter} is the character separating values</p>
+ * <p>{@code header} is whether the first line holds the column names</p>
+ * <p>{@code gzip} is whether the file is gzip compressed</p>
+ * <p>{@code batchSize} is how many rows are inserted per batch, and how often progress is reported</p>
+ * <p>{@code bufferSize} is the size of the file buffer, in bytes</p>
+ * <p>{@code progress} is called with the total amount of rows handled so far, or null</p>
+ * <p></p>
+ * <p>A null value is written as an empty field, and an empty string as {@code ""}.</p>
+ * <p>Binary values are written as Base64.</p>
+ */
+@Data
+public class CsvSettings {
+    private char delimiter = ',';
+    private boolean header = true;
+    private boolean gzip = false;
+    private int batchSize = 500;
+    private int bufferSize = 64 * 1024;
+    @Nullable
+    private LongConsumer progress;
+}
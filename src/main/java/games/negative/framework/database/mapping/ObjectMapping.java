@@ -0,0 +1,291 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.mapping;
+
+import games.negative.framework.database.annotation.Column;
+import games.negative.framework.database.annotation.DontSave;
+import games.negative.framework.database.annotation.constructor.DatabaseConstructor;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Describes how a class is written to and read from a table
+ * <p></p>
+ * <p>The descriptor is resolved once per class: the column name of every saved field,</p>
+ * <p>a {@link MethodHandle} to read it, and the {@link DatabaseConstructor} with the</p>
+ * <p>column of each of its parameters. After that, mapping an object is plain</p>
+ * <p>method handle calls, without scanning fields or annotations again.</p>
+ * <p></p>
+ * <p>Fields from the class and its direct superclass are saved, unless they're</p>
+ * <p>static, synthetic or annotated with {@link DontSave}. A field annotated with</p>
+ * <p>{@link Column} is saved into that column instead of one named after the field.</p>
+ *
+ * @param <T> The mapped class
+ */
+public class ObjectMapping<T> {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private static final ClassValue<ObjectMapping<?>> CACHE = new ClassValue<ObjectMapping<?>>() {
+        @Override
+        protected ObjectMapping<?> computeValue(Class<?> type) {
+            return new ObjectMapping<>(type);
+        }
+    };
+
+    @Getter
+    private final Class<T> type;
+    @Getter
+    private final List<String> columns;
+    private final MethodHandle[] getters;
+
+    private final MethodHandle constructor;
+    @Getter
+    private final List<String> constructorColumns;
+    private final Class<?>[] constructorTypes;
+
+    private ObjectMapping(Class<T> type) {
+        this.type = type;
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<String> columns = new ArrayList<>();
+        List<MethodHandle> getters = new ArrayList<>();
+
+        List<Field> fields = new ArrayList<>();
+        Collections.addAll(fields, type.getDeclaredFields());
+        if (type.getSuperclass() != null)
+            Collections.addAll(fields, type.getSuperclass().getDeclaredFields());
+
+        for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) continue;
+            if (field.isAnnotationPresent(DontSave.class)) continue;
+
+            // If there is an annotation, use the annotation's name instead of the field's name
+            Column column = field.getAnnotation(Column.class);
+            columns.add(column == null ? field.getName() : column.value());
+
+            try {
+                field.setAccessible(true);
+                getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Could not access field " + field.getName() + " of " + type.getName(), e);
+            }
+        }
+
+        this.columns = Collections.unmodifiableList(columns);
+        this.getters = getters.toArray(new MethodHandle[0]);
+
+        Constructor<?> annotated = null;
+        for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+            if (candidate.isAnnotationPresent(DatabaseConstructor.class))
+                annotated = candidate;
+        }
+
+        if (annotated == null) {
+            this.constructor = null;
+            this.constructorColumns = Collections.emptyList();
+            this.constructorTypes = new Class<?>[0];
+            return;
+        }
+
+        List<String> constructorColumns = new ArrayList<>();
+        for (Parameter parameter : annotated.getParameters()) {
+            Column column = parameter.getAnnotation(Column.class);
+            constructorColumns.add(column == null ? null : column.value());
+        }
+        this.constructorColumns = Collections.unmodifiableList(constructorColumns);
+        this.constructorTypes = annotated.getParameterTypes();
+
+        try {
+            annotated.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(annotated)
+                    .asSpreader(Object[].class, constructorColumns.size())
+                    .asType(CONSTRUCTOR_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Could not access the @DatabaseConstructor of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Get the mapping of a class, resolving it the first time it's requested
+     *
+     * @param type The class you'd like to map
+     * @return The class's mapping
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static <T> ObjectMapping<T> of(@NotNull Class<T> type) {
+        return (ObjectMapping<T>) CACHE.get(type);
+    }
+
+    /**
+     * Read an object's saved fields
+     *
+     * @param object The object you'd like to read
+     * @return A map of column names to field values
+     */
+    @NotNull
+    public Map<String, Object> read(@NotNull T object) {
+        Map<String, Object> values = new LinkedHashMap<>(getters.length * 2);
+        for (int i = 0; i < getters.length; i++)
+            values.put(columns.get(i), get(i, object));
+        return values;
+    }
+
+    /**
+     * Read an object's saved fields as text
+     *
+     * @param object The object you'd like to read
+     * @return A map of column names to field values, converted with {@link Object#toString()}
+     */
+    @NotNull
+    public HashMap<String, String> readAsText(@NotNull T object) {
+        HashMap<String, String> values = new LinkedHashMap<>(getters.length * 2);
+        for (int i = 0; i < getters.length; i++) {
+            Object value = get(i, object);
+            values.put(columns.get(i), value == null ? null : value.toString());
+        }
+        return values;
+    }
+
+    /**
+     * Create an object from a row through its {@link DatabaseConstructor}
+     * <p></p>
+     * <p>Constructor parameters without a {@link Column} annotation,</p>
+     * <p>or whose column isn't in the row, are passed null.</p>
+     * <p>Values are converted to the parameter's type with {@link RowMappers#convert(Object, Class)},</p>
+     * <p>so numbers can be read from any numeric column and a {@link UUID} from text or 16 bytes,</p>
+     * <p>and a primitive parameter is passed its default value instead of null.</p>
+     * <p>Columns are matched ignoring case, like {@link #create(ResultSet)} matches them,</p>
+     * <p>so a row read from the cache creates the same object as one read from the database.</p>
+     *
+     * @param row A map of column names to values
+     * @return The created object
+     * @throws InvocationTargetException if the constructor threw an exception
+     */
+    @NotNull
+    public T create(@NotNull Map<String, Object> row) throws InvocationTargetException {
+        Object[] arguments = new Object[constructorColumns.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            String column = constructorColumns.get(i);
+            arguments[i] = RowMappers.convert(column == null ? null : value(row, column), constructorTypes[i]);
+        }
+        return construct(arguments);
+    }
+
+    /**
+     * Get a column's value from a row, ignoring the case of its name
+     *
+     * @param row    A map of column names to values
+     * @param column The column
+     * @return The value, or null if the row doesn't have the column
+     */
+    private static Object value(Map<String, Object> row, String column) {
+        Object value = row.get(column);
+        if (value != null || row.containsKey(column))
+            return value;
+
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(column))
+                return entry.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Create an object from the current row of a {@link ResultSet} through its {@link DatabaseConstructor}
+     *
+     * @param set The result set, positioned on the row you'd like to read
+     * @return The created object
+     * @throws SQLException              if a column could not be read
+     * @throws InvocationTargetException if the constructor threw an exception
+     */
+    @NotNull
+    public T create(@NotNull ResultSet set) throws SQLException, InvocationTargetException {
+        Object[] arguments = new Object[constructorColumns.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            String column = constructorColumns.get(i);
+            arguments[i] = RowMappers.convert(column == null ? null : set.getObject(column), constructorTypes[i]);
+        }
+        return construct(arguments);
+    }
+
+    private Object get(int index, T object) {
+        try {
+            return (Object) getters[index].invokeExact((Object) object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T construct(Object[] arguments) throws InvocationTargetException {
+        if (constructor == null)
+            throw new IllegalStateException(type.getName() + " has no constructor annotated with @DatabaseConstructor");
+
+        // Checked up front, so anything the handle throws comes from the constructor itself
+        for (int i = 0; i < arguments.length; i++) {
+            Class<?> parameter = constructorTypes[i];
+            Object argument = arguments[i];
+            boolean matches = argument == null
+                    ? !parameter.isPrimitive()
+                    : MethodType.methodType(parameter).wrap().returnType().isInstance(argument);
+            if (!matches)
+                throw new IllegalArgumentException("The row's value " + argument + " doesn't match parameter " + i
+                        + " (" + parameter.getName() + ") of the @DatabaseConstructor of " + type.getName());
+        }
+
+        try {
+            Object created = (Object) constructor.invokeExact(arguments);
+            return (T) created;
+        } catch (Throwable throwable) {
+            throw new InvocationTargetException(throwable);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.mapping;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes objects of a class to statements and reads them back from result sets by column index
+ * <p></p>
+ * <p>Implementations are generated at compile time by the {@code Framework-Processor}</p>
+ * <p>annotation processor for every class using {@link games.negative.framework.database.annotation.Column}</p>
+ * <p>or {@link games.negative.framework.database.annotation.constructor.DatabaseConstructor}, and are</p>
+ * <p>picked up by {@link games.negative.framework.database.Database} through {@link RowMappers}.</p>
+ * <p>Classes without a generated mapper fall back to {@link ObjectMapping}.</p>
+ *
+ * @param <T> The mapped class
+ */
+public interface RowMapper<T> {
+
+    /**
+     * Get the class this mapper maps
+     *
+     * @return The mapped class
+     */
+    @NotNull
+    Class<T> getType();
+
+    /**
+     * Get the columns {@link #bind(Object, PreparedStatement, int)} binds, in order
+     *
+     * @return The written columns
+     */
+    @NotNull
+    List<String> getWriteColumns();
+
+    /**
+     * Get the columns {@link #read(ResultSet, int)} reads, in order
+     * <p></p>
+     * <p>This is empty if the class has no {@code @DatabaseConstructor}, in which case</p>
+     * <p>the mapper can only write objects and {@link #read(ResultSet, int)} must not be called.</p>
+     *
+     * @return The read columns
+     */
+    @NotNull
+    List<String> getReadColumns();
+
+    /**
+     * Bind an object's values to a statement
+     *
+     * @param object    The object you'd like to bind
+     * @param statement The statement you'd like to bind to
+     * @param offset    The parameter index of the first written column
+     * @throws SQLException if a value could not be bound
+     */
+    void bind(@NotNull T object, @NotNull PreparedStatement statement, int offset) throws SQLException;
+
+    /**
+     * Create an object from the current row of a result set
+     * <p></p>
+     * <p>Mappers of classes without a {@code @DatabaseConstructor} don't implement this,</p>
+     * <p>and report no {@link #getReadColumns()}.</p>
+     *
+     * @param set    The result set, positioned on the row you'd like to read
+     * @param offset The column index of the first read column
+     * @return The created object
+     * @throws SQLException                  if a value could not be read
+     * @throws UnsupportedOperationException if the class has no {@code @DatabaseConstructor}
+     */
+    @NotNull
+    default T read(@NotNull ResultSet set, int offset) throws SQLException {
+        throw new UnsupportedOperationException(getType().getName() + " has no @DatabaseConstructor");
+    }
+
+}
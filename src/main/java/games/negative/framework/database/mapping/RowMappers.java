@@ -0,0 +1,348 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.mapping;
+
+import games.negative.framework.database.BinaryCompression;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Finds generated {@link RowMapper}s and provides the typed reads they use
+ * <p></p>
+ * <p>Generated mappers and {@link ObjectMapping} convert values the same way, through</p>
+ * <p>{@link #convert(Object, Class)}, so generating a mapper never changes what a row is read into.</p>
+ * <p>A SQL {@code NULL} read into a primitive is its default value, as with JDBC's own getters.</p>
+ * <p></p>
+ * <p>The mapper generated for {@code com.example.PlayerData} is {@code com.example.PlayerData_RowMapper},</p>
+ * <p>and the one for a nested class {@code com.example.Outer.Data} is {@code com.example.Outer_Data_RowMapper}.</p>
+ */
+@UtilityClass
+public class RowMappers {
+
+    /**
+     * The suffix of generated mapper class names
+     */
+    public final String SUFFIX = "_RowMapper";
+
+    private final ClassValue<RowMapper<?>> MAPPERS = new ClassValue<RowMapper<?>>() {
+        @Override
+        protected RowMapper<?> computeValue(Class<?> type) {
+            String binaryName = type.getName();
+            String packageName = type.getPackage() == null ? "" : type.getPackage().getName();
+            String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+            String mapperName = (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_') + SUFFIX;
+
+            try {
+                Class<?> mapperClass = Class.forName(mapperName, true, type.getClassLoader());
+                if (!RowMapper.class.isAssignableFrom(mapperClass))
+                    return null;
+                return (RowMapper<?>) mapperClass.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+    };
+
+    /**
+     * Find the generated mapper of a class
+     *
+     * @param type The class you'd like to map
+     * @return The generated mapper, or null if the class has none
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> RowMapper<T> find(@NotNull Class<T> type) {
+        return (RowMapper<T>) MAPPERS.get(type);
+    }
+
+    /**
+     * Read a nullable {@link Boolean}
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @return The value, or null if the column is null
+     * @throws SQLException if the column could not be read
+     */
+    @Nullable
+    public Boolean readBoolean(@NotNull ResultSet set, int index) throws SQLException {
+        boolean value = set.getBoolean(index);
+        return set.wasNull() ? null : value;
+    }
+
+    /**
+     * Read a nullable {@link Byte}
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @return The value, or null if the column is null
+     * @throws SQLException if the column could not be read
+     */
+    @Nullable
+    public Byte readByte(@NotNull ResultSet set, int index) throws SQLException {
+        byte value = set.getByte(index);
+        return set.wasNull() ? null : value;
+    }
+
+    /**
+     * Read a nullable {@link Short}
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @return The value, or null if the column is null
+     * @throws SQLException if the column could not be read
+     */
+    @Nullable
+    public Short readShort(@NotNull ResultSet set, int index) throws SQLException {
+        short value = set.getShort(index);
+        return set.wasNull() ? null : value;
+    }
+
+    /**
+     * Read a nullable {@link Integer}
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @return The value, or null if the column is null
+     * @throws SQLException if the column could not be read
+     */
+    @Nullable
+    public Integer readInteger(@NotNull ResultSet set, int index) throws SQLException {
+        int value = set.getInt(index);
+        return set.wasNull() ? null : value;
+    }
+
+    /**
+     * Read a nullable {@link Long}
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @return The value, or null if the column is null
+     * @throws SQLException if the column could not be read
+     */
+    @Nullable
+    public Long readLong(@NotNull ResultSet set, int index) throws SQLException {
+        long value = set.getLong(index);
+        return set.wasNull() ? null : value;
+    }
+
+    /**
+     * Read a nullable {@link Float}
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @return The value, or null if the column is null
+     * @throws SQLException if the column could not be read
+     */
+    @Nullable
+    public Float readFloat(@NotNull ResultSet set, int index) throws SQLException {
+        float value = set.getFloat(index);
+        return set.wasNull() ? null : value;
+    }
+
+    /**
+     * Read a nullable {@link Double}
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @return The value, or null if the column is null
+     * @throws SQLException if the column could not be read
+     */
+    @Nullable
+    public Double readDouble(@NotNull ResultSet set, int index) throws SQLException {
+        double value = set.getDouble(index);
+        return set.wasNull() ? null : value;
+    }
+
+    /**
+     * Read a {@code char} from the first character of a text column
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @return The first character, or {@code '\0'} if the column is null or empty
+     * @throws SQLException if the column could not be read
+     */
+    public char readChar(@NotNull ResultSet set, int index) throws SQLException {
+        String value = set.getString(index);
+        return value == null || value.isEmpty() ? '\0' : value.charAt(0);
+    }
+
+    /**
+     * Read an enum constant by its name
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @param type  The enum's class
+     * @return The constant, or null if the column is null
+     * @throws SQLException             if the column could not be read
+     * @throws IllegalArgumentException if the enum has no constant with the column's name
+     */
+    @Nullable
+    public <E extends Enum<E>> E readEnum(@NotNull ResultSet set, int index, @NotNull Class<E> type) throws SQLException, IllegalArgumentException {
+        String value = set.getString(index);
+        return value == null ? null : Enum.valueOf(type, value);
+    }
+
+    /**
+     * Convert a value read from a column into a type
+     * <p></p>
+     * <p>Numbers are converted between numeric types and parsed from text, booleans are read</p>
+     * <p>from numbers or text, enums by their name, and a {@link UUID} from text or 16 bytes.</p>
+     * <p>Compressed bytes are decompressed first, and null is a primitive's default value.</p>
+     *
+     * @param value The value, as returned by {@link ResultSet#getObject(int)}
+     * @param type  The type you'd like to convert to
+     * @return The converted value
+     * @throws IllegalArgumentException if the value can't be converted to the type
+     */
+    @Nullable
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> T convert(@Nullable Object value, @NotNull Class<T> type) throws IllegalArgumentException {
+        if (value instanceof byte[])
+            value = BinaryCompression.decompress((byte[]) value);
+        if (value == null)
+            return type.isPrimitive() ? (T) Array.get(Array.newInstance(type, 1), 0) : null;
+        if (type.isInstance(value))
+            return (T) value;
+
+        Class<?> boxed = type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+        Object converted = convertValue(value, boxed);
+        if (!boxed.isInstance(converted))
+            throw new IllegalArgumentException("Can't convert " + value.getClass().getName() + " " + value + " to " + type.getName());
+        return (T) converted;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object convertValue(Object value, Class<?> boxed) {
+        if (boxed.isInstance(value))
+            return value;
+
+        if (boxed == String.class)
+            return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8) : value.toString();
+        if (boxed == UUID.class)
+            return value instanceof byte[] ? toUUID((byte[]) value) : UUID.fromString(value.toString());
+        if (boxed.isEnum())
+            return Enum.valueOf((Class<Enum>) boxed, value.toString());
+        if (boxed == Character.class)
+            return value.toString().isEmpty() ? '\0' : value.toString().charAt(0);
+
+        if (boxed == Boolean.class) {
+            if (value instanceof Number)
+                return ((Number) value).intValue() != 0;
+            return Boolean.parseBoolean(value.toString());
+        }
+
+        if (Number.class.isAssignableFrom(boxed)) {
+            // Drivers differ in which numeric type they return, and old rows may hold numbers as text
+            Number number = value instanceof Number ? (Number) value : new BigDecimal(value.toString());
+            if (boxed == Integer.class) return number.intValue();
+            if (boxed == Long.class) return number.longValue();
+            if (boxed == Double.class) return number.doubleValue();
+            if (boxed == Float.class) return number.floatValue();
+            if (boxed == Short.class) return number.shortValue();
+            if (boxed == Byte.class) return number.byteValue();
+            if (boxed == BigDecimal.class) return new BigDecimal(number.toString());
+            if (boxed == BigInteger.class) return new BigDecimal(number.toString()).toBigInteger();
+        }
+        return value;
+    }
+
+    /**
+     * Read a {@code byte[]}, decompressing it if it was compressed
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @return The bytes, or null if the column is null
+     * @throws SQLException if the column could not be read
+     * @see BinaryCompression
+     */
+    @Nullable
+    public byte[] readBytes(@NotNull ResultSet set, int index) throws SQLException {
+        byte[] value = set.getBytes(index);
+        return value == null ? null : BinaryCompression.decompress(value);
+    }
+
+    /**
+     * Read a {@link UUID} stored either as text or as 16 raw bytes
+     *
+     * @param set   The result set
+     * @param index The column index
+     * @return The uuid, or null if the column is null
+     * @throws SQLException if the column could not be read
+     */
+    @Nullable
+    public UUID readUUID(@NotNull ResultSet set, int index) throws SQLException {
+        Object value = set.getObject(index);
+        if (value == null)
+            return null;
+
+        if (value instanceof byte[] && ((byte[]) value).length == 16)
+            return toUUID((byte[]) value);
+        return UUID.fromString(value.toString());
+    }
+
+    /**
+     * Convert a {@link UUID} into the 16 bytes stored in a {@code BINARY(16)} column
+     *
+     * @param uuid The uuid
+     * @return The uuid's most significant bits followed by its least significant bits
+     */
+    @NotNull
+    public byte[] toBytes(@NotNull UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Convert the 16 bytes stored in a {@code BINARY(16)} column back into a {@link UUID}
+     *
+     * @param bytes The bytes
+     * @return The uuid
+     * @throws IllegalArgumentException if there aren't exactly 16 bytes
+     */
+    @NotNull
+    public UUID toUUID(@NotNull byte[] bytes) throws IllegalArgumentException {
+        if (bytes.length != 16)
+            throw new IllegalArgumentException("A UUID is 16 bytes, got " + bytes.length);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.metrics;
+
+import games.negative.framework.bstats.Metrics;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Creates bStats custom charts from a database's {@link QueryMetrics}
+ * <p></p>
+ * <p>Every chart reports what happened since its previous submission, so the values</p>
+ * <p>add up correctly across servers. The chart ids must match charts created on bStats.</p>
+ * <pre>
+ *     Metrics metrics = new Metrics(plugin, pluginId);
+ *     metrics.addCustomChart(DatabaseCharts.operations("database_operations", db.getQueryMetrics()));
+ *     metrics.addCustomChart(DatabaseCharts.slowQueries("slow_queries", db.getQueryMetrics()));
+ * </pre>
+ */
+@UtilityClass
+public class DatabaseCharts {
+
+    /**
+     * A pie of how many queries of each operation ran
+     *
+     * @param chartId The chart's id
+     * @param metrics The metrics you'd like to report
+     * @return The chart
+     */
+    @NotNull
+    public Metrics.AdvancedPie operations(@NotNull String chartId, @NotNull QueryMetrics metrics) {
+        return new Metrics.AdvancedPie(chartId, counts(metrics, MetricsSnapshot::getOperations));
+    }
+
+    /**
+     * A pie of how many queries ran against each table
+     *
+     * @param chartId The chart's id
+     * @param metrics The metrics you'd like to report
+     * @return The chart
+     */
+    @NotNull
+    public Metrics.AdvancedPie tables(@NotNull String chartId, @NotNull QueryMetrics metrics) {
+        return new Metrics.AdvancedPie(chartId, counts(metrics, MetricsSnapshot::getTables));
+    }
+
+    /**
+     * A line of how many queries were slower than the slow query threshold
+     *
+     * @param chartId The chart's id
+     * @param metrics The metrics you'd like to report
+     * @return The chart
+     */
+    @NotNull
+    public Metrics.SingleLineChart slowQueries(@NotNull String chartId, @NotNull QueryMetrics metrics) {
+        long[] previous = {0};
+        return new Metrics.SingleLineChart(chartId, () -> {
+            long current = metrics.snapshot().getSlowQueries();
+            long delta = current >= previous[0] ? current - previous[0] : current;
+            previous[0] = current;
+            return (int) Math.min(delta, Integer.MAX_VALUE);
+        });
+    }
+
+    /**
+     * A line of the average query latency, in milliseconds
+     *
+     * @param chartId The chart's id
+     * @param metrics The metrics you'd like to report
+     * @return The chart
+     */
+    @NotNull
+    public Metrics.SingleLineChart averageLatency(@NotNull String chartId, @NotNull QueryMetrics metrics) {
+        long[] previous = {0, 0};
+        return new Metrics.SingleLineChart(chartId, () -> {
+            long count = 0;
+            long nanos = 0;
+            for (QueryStats stats : metrics.snapshot().getOperations().values()) {
+                count += stats.getCount();
+                nanos += stats.getTotalNanos();
+            }
+
+            // The metrics may have been reset since the last submission
+            long deltaCount = count >= previous[0] ? count - previous[0] : count;
+            long deltaNanos = nanos >= previous[1] ? nanos - previous[1] : nanos;
+            previous[0] = count;
+            previous[1] = nanos;
+            return deltaCount == 0 ? 0 : (int) TimeUnit.NANOSECONDS.toMillis(deltaNanos / deltaCount);
+        });
+    }
+
+    private Callable<Map<String, Integer>> counts(QueryMetrics metrics, Function<MetricsSnapshot, Map<String, QueryStats>> selector) {
+        Map<String, Long> previous = new HashMap<>();
+        return () -> {
+            Map<String, Integer> counts = new HashMap<>();
+            for (Map.Entry<String, QueryStats> entry : selector.apply(metrics.snapshot()).entrySet()) {
+                long current = entry.getValue().getCount();
+                Long before = previous.put(entry.getKey(), current);
+                long delta = before == null || current < before ? current : current - before;
+                if (delta > 0)
+                    counts.put(entry.getKey(), (int) Math.min(delta, Integer.MAX_VALUE));
+            }
+            return counts;
+        };
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.metrics;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * The query statistics of a {@link games.negative.framework.database.Database} at one point in time
+ * <p></p>
+ * <p>{@code operations} is keyed by the kind of query, such as {@code select}, {@code insert} or {@code batch_insert}</p>
+ * <p>{@code tables} is keyed by table name, for queries which target a single table</p>
+ * <p>{@code slowQueries} is how many queries took longer than the slow query threshold</p>
+ * <p>{@code since} and {@code takenAt} are when recording started and when this snapshot was taken, in epoch milliseconds</p>
+ */
+@Data
+public class MetricsSnapshot {
+    private final Map<String, QueryStats> operations;
+    private final Map<String, QueryStats> tables;
+    private final long slowQueries;
+    private final long since;
+    private final long takenAt;
+}
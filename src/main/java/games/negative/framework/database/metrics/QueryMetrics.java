@@ -0,0 +1,237 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Records the latency and row counts of a database's queries
+ * <p></p>
+ * <p>Queries are counted per operation and per table, with a latency histogram for each,</p>
+ * <p>using striped counters so recording doesn't contend between threads.</p>
+ * <p>Queries slower than {@code slowQueryThreshold} milliseconds are logged with a summary</p>
+ * <p>of their parameters. A threshold of 0 or less disables the log.</p>
+ * <p></p>
+ * <p>Read the statistics with {@link #snapshot()}, or send them to bStats with {@link DatabaseCharts}.</p>
+ */
+public class QueryMetrics {
+
+    private static final int MAX_SUMMARIZED_PARAMETERS = 8;
+    private static final int MAX_SUMMARIZED_LENGTH = 32;
+
+    @Getter
+    @Setter
+    private volatile boolean enabled = true;
+    @Getter
+    @Setter
+    private volatile long slowQueryThreshold = 250;
+
+    private final Map<String, Recorder> operations = new ConcurrentHashMap<>();
+    private final Map<String, Recorder> tables = new ConcurrentHashMap<>();
+    private final LongAdder slowQueries = new LongAdder();
+    private volatile long since = System.currentTimeMillis();
+
+    /**
+     * Start timing a query
+     *
+     * @param operation  The kind of query, such as {@code select}
+     * @param table      The table the query targets, or null if it doesn't target a single table
+     * @param sql        The query's SQL, only used for the slow query log
+     * @param parameters The query's parameters as a value, array or collection, only summarized for the slow query log
+     * @return The timer, which must be stopped once the query finished
+     */
+    @NotNull
+    public QueryTimer start(@NotNull String operation, @Nullable String table, @NotNull String sql, @Nullable Object parameters) {
+        if (!enabled)
+            return QueryTimer.DISABLED;
+        return new QueryTimer(this, operation, table, sql, parameters);
+    }
+
+    /**
+     * Count rows read after a query was recorded, such as by a cursor
+     *
+     * @param operation The kind of query
+     * @param table     The table the rows were read from, or null
+     * @param rows      The amount of rows
+     */
+    public void recordRowsRead(@NotNull String operation, @Nullable String table, long rows) {
+        if (!enabled || rows == 0)
+            return;
+
+        operations.computeIfAbsent(operation, key -> new Recorder()).rowsRead.add(rows);
+        if (table != null)
+            tables.computeIfAbsent(table, key -> new Recorder()).rowsRead.add(rows);
+    }
+
+    /**
+     * Take a snapshot of the statistics recorded so far
+     *
+     * @return The snapshot
+     */
+    @NotNull
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(snapshot(operations), snapshot(tables), slowQueries.sum(), since, System.currentTimeMillis());
+    }
+
+    /**
+     * Forget every statistic recorded so far
+     */
+    public void reset() {
+        operations.clear();
+        tables.clear();
+        slowQueries.reset();
+        since = System.currentTimeMillis();
+    }
+
+    void record(QueryTimer timer, long nanos) {
+        operations.computeIfAbsent(timer.getOperation(), key -> new Recorder()).record(timer, nanos);
+        if (timer.getTable() != null)
+            tables.computeIfAbsent(timer.getTable(), key -> new Recorder()).record(timer, nanos);
+
+        long threshold = slowQueryThreshold;
+        if (threshold > 0 && nanos >= TimeUnit.MILLISECONDS.toNanos(threshold)) {
+            slowQueries.increment();
+            Bukkit.getLogger().log(Level.WARNING, "[FrameworkAPI] Slow " + timer.getOperation() + " query took "
+                    + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms" + (timer.isFailed() ? " and failed" : "") + ": "
+                    + timer.getSql() + (timer.getParameters() == null ? "" : " " + summarize(timer.getParameters())));
+        }
+    }
+
+    private Map<String, QueryStats> snapshot(Map<String, Recorder> recorders) {
+        Map<String, QueryStats> stats = new TreeMap<>();
+        recorders.forEach((key, recorder) -> stats.put(key, recorder.snapshot()));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Summarizes parameters for a log line, shortening long values and binary data
+     *
+     * @param parameters A value, array or collection of values
+     * @return The summary
+     */
+    static String summarize(@NotNull Object parameters) {
+        Iterator<?> values;
+        int size;
+        if (parameters instanceof Collection) {
+            values = ((Collection<?>) parameters).iterator();
+            size = ((Collection<?>) parameters).size();
+        } else if (parameters instanceof Object[]) {
+            values = Arrays.asList((Object[]) parameters).iterator();
+            size = ((Object[]) parameters).length;
+        } else {
+            values = Collections.singleton(parameters).iterator();
+            size = 1;
+        }
+
+        StringBuilder summary = new StringBuilder("[");
+        for (int i = 0; i < size && values.hasNext(); i++) {
+            if (i == MAX_SUMMARIZED_PARAMETERS) {
+                summary.append(", ... ").append(size - i).append(" more");
+                break;
+            }
+            if (i > 0)
+                summary.append(", ");
+
+            Object value = values.next();
+            if (value == null) {
+                summary.append("null");
+            } else if (value.getClass().isArray()) {
+                summary.append('<').append(Array.getLength(value)).append(' ').append(value.getClass().getComponentType().getSimpleName()).append("s>");
+            } else if (value instanceof CharSequence) {
+                String text = value.toString();
+                summary.append('\'');
+                if (text.length() > MAX_SUMMARIZED_LENGTH)
+                    summary.append(text, 0, MAX_SUMMARIZED_LENGTH).append("...");
+                else
+                    summary.append(text);
+                summary.append('\'');
+            } else {
+                summary.append(value);
+            }
+        }
+        return summary.append(']').toString();
+    }
+
+    private static class Recorder {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rowsRead = new LongAdder();
+        private final LongAdder rowsWritten = new LongAdder();
+        private final LongAdder[] histogram = new LongAdder[QueryStats.BUCKETS.length + 1];
+
+        private Recorder() {
+            for (int i = 0; i < histogram.length; i++)
+                histogram[i] = new LongAdder();
+        }
+
+        private void record(QueryTimer timer, long nanos) {
+            count.increment();
+            if (timer.isFailed())
+                errors.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (timer.getRowsRead() > 0)
+                rowsRead.add(timer.getRowsRead());
+            if (timer.getRowsWritten() > 0)
+                rowsWritten.add(timer.getRowsWritten());
+
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            int bucket = 0;
+            while (bucket < QueryStats.BUCKETS.length && micros > QueryStats.BUCKETS[bucket])
+                bucket++;
+            histogram[bucket].increment();
+        }
+
+        private QueryStats snapshot() {
+            long[] buckets = new long[histogram.length];
+            for (int i = 0; i < buckets.length; i++)
+                buckets[i] = histogram[i].sum();
+
+            return new QueryStats(count.sum(), errors.sum(), totalNanos.sum(), maxNanos.get(), rowsRead.sum(), rowsWritten.sum(), buckets);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.metrics;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The statistics of one operation or table at the time of a {@link MetricsSnapshot}
+ * <p></p>
+ * <p>{@code histogram} holds how many queries finished within each of {@link #BUCKETS},</p>
+ * <p>with a last bucket for queries slower than all of them.</p>
+ */
+@Data
+public class QueryStats {
+
+    /**
+     * The upper bounds of the latency histogram's buckets, in microseconds
+     */
+    public static final long[] BUCKETS = {
+            100, 250, 500,
+            1_000, 2_500, 5_000,
+            10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000,
+            1_000_000, 5_000_000
+    };
+
+    private final long count;
+    private final long errors;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long rowsRead;
+    private final long rowsWritten;
+    private final long[] histogram;
+
+    /**
+     * Get the average latency of a query
+     *
+     * @return The average latency, in nanoseconds
+     */
+    public long getAverageNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Estimate a latency percentile from the histogram
+     * <p></p>
+     * <p>The estimate is the upper bound of the bucket the percentile falls in,</p>
+     * <p>or the slowest query if it falls past the last bucket.</p>
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The estimated latency, in nanoseconds
+     */
+    public long getPercentileNanos(double percentile) {
+        if (count == 0)
+            return 0;
+
+        long target = (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            seen += histogram[i];
+            if (seen >= target)
+                return Math.min(TimeUnit.MICROSECONDS.toNanos(BUCKETS[i]), maxNanos);
+        }
+        return maxNanos;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Times a single query for {@link QueryMetrics}
+ * <p></p>
+ * <p>A timer starts when it's created and records the query once it's stopped.</p>
+ * <p>It's used by one thread for one query, so it isn't thread safe.</p>
+ */
+@Getter(AccessLevel.PACKAGE)
+public class QueryTimer {
+
+    /**
+     * A timer which records nothing, used while metrics are disabled
+     */
+    static final QueryTimer DISABLED = new QueryTimer(null, "", null, "", null);
+
+    private final QueryMetrics metrics;
+    private final String operation;
+    private final String table;
+    private final String sql;
+    private final Object parameters;
+    private final long start;
+
+    private long rowsRead;
+    private long rowsWritten;
+    private boolean failed;
+    private boolean stopped;
+
+    QueryTimer(@Nullable QueryMetrics metrics, @NotNull String operation, @Nullable String table, @NotNull String sql, @Nullable Object parameters) {
+        this.metrics = metrics;
+        this.operation = operation;
+        this.table = table;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.start = metrics == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Count rows the query read
+     *
+     * @param rows The amount of rows
+     */
+    public void read(long rows) {
+        rowsRead += rows;
+    }
+
+    /**
+     * Count rows the query wrote
+     *
+     * @param rows The amount of rows
+     */
+    public void wrote(long rows) {
+        rowsWritten += rows;
+    }
+
+    /**
+     * Mark the query as failed
+     */
+    public void fail() {
+        failed = true;
+    }
+
+    /**
+     * Stop the timer and record the query, if it wasn't stopped already
+     */
+    public void stop() {
+        if (stopped || metrics == null)
+            return;
+
+        stopped = true;
+        metrics.record(this, System.nanoTime() - start);
+    }
+}
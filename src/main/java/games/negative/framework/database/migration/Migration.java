@@ -0,0 +1,137 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.migration;
+
+import games.negative.framework.database.Database;
+import games.negative.framework.database.Transaction;
+import games.negative.framework.database.builder.TableBuilder;
+import games.negative.framework.database.function.SQLConsumer;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A versioned step of a schema migration
+ * <p></p>
+ * <p>Each migration has a checksum of what it does, which is recorded once it's applied.</p>
+ * <p>If an applied migration is changed afterwards, its checksum no longer matches and</p>
+ * <p>{@link MigrationRunner#migrate()} refuses to run, instead of leaving databases which</p>
+ * <p>migrated before and after the change with different schemas.</p>
+ * <pre>
+ *     Migration.create(1, "Create players", playersTable);
+ *     Migration.sql(2, "Add coins", "ALTER TABLE `players` ADD `coins` INT DEFAULT 0");
+ *     Migration.code(3, "Backfill coins", tx -&gt; ...);
+ * </pre>
+ */
+@Getter
+public class Migration {
+
+    private final int version;
+    private final String description;
+    private final long checksum;
+    private final List<String> statements;
+    private final SQLConsumer<Transaction> action;
+
+    private Migration(int version, String description, long checksum, List<String> statements, SQLConsumer<Transaction> action) {
+        if (version <= 0)
+            throw new IllegalArgumentException("Migration versions must be positive, got " + version);
+
+        this.version = version;
+        this.description = description;
+        this.checksum = checksum;
+        this.statements = statements;
+        this.action = action;
+    }
+
+    /**
+     * Create a migration running SQL statements
+     * <p></p>
+     * <p>The statements are sent to the database in a single batch.</p>
+     *
+     * @param version     The version, which must be unique and positive
+     * @param description What the migration does
+     * @param statements  The statements
+     * @return The migration
+     */
+    public static Migration sql(int version, @NotNull String description, @NotNull String... statements) {
+        List<String> list = Collections.unmodifiableList(Arrays.asList(statements));
+        return new Migration(version, description, checksum(String.join("\n", list)), list, null);
+    }
+
+    /**
+     * Create a migration creating a table
+     *
+     * @param version     The version, which must be unique and positive
+     * @param description What the migration does
+     * @param table       The table
+     * @return The migration
+     */
+    public static Migration create(int version, @NotNull String description, @NotNull TableBuilder table) {
+        return new Migration(version, description, checksum(table.toString()), Collections.emptyList(), tx -> tx.getDatabase().createTable(table));
+    }
+
+    /**
+     * Create a migration running code
+     * <p></p>
+     * <p>Code can't be checksummed, so changing it isn't detected.</p>
+     *
+     * @param version     The version, which must be unique and positive
+     * @param description What the migration does
+     * @param action      The code, which runs inside the migration's transaction
+     * @return The migration
+     */
+    public static Migration code(int version, @NotNull String description, @NotNull SQLConsumer<Transaction> action) {
+        return new Migration(version, description, 0, Collections.emptyList(), action);
+    }
+
+    /**
+     * Apply this migration
+     *
+     * @param tx The transaction it runs in
+     * @throws SQLException if the migration failed
+     */
+    void apply(@NotNull Transaction tx) throws SQLException {
+        Database database = tx.getDatabase();
+        if (!statements.isEmpty())
+            database.execute(statements);
+        if (action != null)
+            action.accept(tx);
+    }
+
+    private static long checksum(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.migration;
+
+import games.negative.framework.database.Cursor;
+import games.negative.framework.database.Database;
+import games.negative.framework.database.Transaction;
+import games.negative.framework.database.exception.MigrationException;
+import lombok.Getter;
+import lombok.Setter;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+
+/**
+ * Brings a database's schema up to date by applying pending {@link Migration}s in order
+ * <p></p>
+ * <p>Applied versions are recorded in a history table, so every migration runs once.</p>
+ * <p>Reading the history is a single query, so starting up an up to date database</p>
+ * <p>doesn't check every table and column on its own.</p>
+ * <p></p>
+ * <p>On SQLite, every pending migration runs inside one transaction, so a failure leaves</p>
+ * <p>the schema as it was. MySQL commits every schema change on its own, so there each</p>
+ * <p>migration runs in its own transaction and is recorded as soon as it's applied,</p>
+ * <p>and a failing migration's own statements may be partially applied.</p>
+ * <pre>
+ *     db.migrations()
+ *             .add(Migration.create(1, "Create players", playersTable))
+ *             .add(Migration.sql(2, "Add coins", "ALTER TABLE `players` ADD `coins` INT DEFAULT 0"))
+ *             .migrate();
+ * </pre>
+ */
+public class MigrationRunner {
+
+    private final Database database;
+    private final Map<Integer, Migration> migrations = new TreeMap<>();
+
+    /**
+     * The table applied versions are recorded in
+     */
+    @Getter
+    @Setter
+    private String historyTable = "framework_migrations";
+
+    /**
+     * The checksum of every applied version, once read from the history table
+     */
+    private Map<Integer, Long> applied;
+
+    public MigrationRunner(@NotNull Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Add a migration
+     *
+     * @param migration The migration
+     * @return This runner
+     * @throws IllegalArgumentException if a migration with the same version was already added
+     */
+    public MigrationRunner add(@NotNull Migration migration) {
+        Migration previous = migrations.putIfAbsent(migration.getVersion(), migration);
+        if (previous != null && previous != migration)
+            throw new IllegalArgumentException("Migrations " + previous.getDescription() + " and " + migration.getDescription() + " both have version " + migration.getVersion());
+        return this;
+    }
+
+    /**
+     * Apply every pending migration, in order of their versions
+     *
+     * @return The amount of applied migrations
+     * @throws MigrationException if an applied migration was changed afterwards
+     * @throws SQLException       if a migration failed
+     */
+    public synchronized int migrate() throws SQLException {
+        Map<Integer, Long> history = readHistory();
+        List<Migration> pending = new ArrayList<>();
+
+        for (Migration migration : migrations.values()) {
+            Long checksum = history.get(migration.getVersion());
+            if (checksum == null) {
+                pending.add(migration);
+                continue;
+            }
+
+            if (migration.getChecksum() != 0 && checksum != migration.getChecksum())
+                throw new MigrationException("Migration " + migration.getVersion() + " (" + migration.getDescription() + ") was changed after it was applied: "
+                        + "its checksum is " + migration.getChecksum() + ", but " + checksum + " was recorded");
+        }
+
+        if (pending.isEmpty())
+            return 0;
+
+        if (database.getSqlLiteFile() != null) {
+            database.inTransaction(tx -> {
+                for (Migration migration : pending)
+                    apply(tx, migration);
+                return null;
+            });
+            for (Migration migration : pending)
+                history.put(migration.getVersion(), migration.getChecksum());
+        } else {
+            for (Migration migration : pending) {
+                database.inTransaction(tx -> apply(tx, migration));
+                history.put(migration.getVersion(), migration.getChecksum());
+            }
+        }
+
+        return pending.size();
+    }
+
+    /**
+     * Get the highest applied version
+     *
+     * @return The current version, or 0 if nothing was applied
+     * @throws SQLException if the history could not be read
+     */
+    public synchronized int getCurrentVersion() throws SQLException {
+        Map<Integer, Long> history = readHistory();
+        int version = 0;
+        for (int applied : history.keySet())
+            version = Math.max(version, applied);
+        return version;
+    }
+
+    /**
+     * Get the versions which were added to this runner but aren't applied yet
+     *
+     * @return The pending versions, in order
+     * @throws SQLException if the history could not be read
+     */
+    public synchronized List<Integer> getPendingVersions() throws SQLException {
+        Map<Integer, Long> history = readHistory();
+        List<Integer> pending = new ArrayList<>();
+        for (int version : migrations.keySet()) {
+            if (!history.containsKey(version))
+                pending.add(version);
+        }
+        return pending;
+    }
+
+    /**
+     * Forget the cached history, so it's read from the database again
+     * <p></p>
+     * <p>Only needed if something else migrated the same database.</p>
+     */
+    public synchronized void refresh() {
+        applied = null;
+    }
+
+    /**
+     * Reads the history table once, creating it if it doesn't exist yet
+     * <p></p>
+     * <p>The history is read on the primary, as a lagging replica could miss a migration</p>
+     * <p>which was just applied and have it applied twice.</p>
+     *
+     * @return The checksum of every applied version
+     * @throws SQLException if the history could not be read
+     */
+    private Map<Integer, Long> readHistory() throws SQLException {
+        if (applied != null)
+            return applied;
+
+        String statement = "SELECT `version`, `checksum` FROM `" + historyTable + "`";
+        Map<Integer, Long> history = new LinkedHashMap<>();
+        try (Cursor<Map.Entry<Integer, Long>> cursor = database.query(true, statement, set -> new AbstractMap.SimpleEntry<>(set.getInt(1), set.getLong(2)))) {
+            cursor.forEachRemaining(entry -> history.put(entry.getKey(), entry.getValue()));
+        } catch (SQLException e) {
+            if (database.tableExists(true, historyTable))
+                throw e;
+
+            database.execute(Collections.singletonList("CREATE TABLE IF NOT EXISTS `" + historyTable + "` ("
+                    + "`version` INT NOT NULL, "
+                    + "`description` VARCHAR(255) NOT NULL, "
+                    + "`checksum` BIGINT NOT NULL, "
+                    + "`applied_at` BIGINT NOT NULL, "
+                    + "`duration` BIGINT NOT NULL, "
+                    + "PRIMARY KEY (`version`))"));
+        }
+
+        applied = history;
+        return history;
+    }
+
+    /**
+     * Applies a migration and records it in the history table
+     *
+     * @param tx        The transaction the migration runs in
+     * @param migration The migration
+     * @return Nothing
+     * @throws SQLException if the migration failed
+     */
+    private Void apply(Transaction tx, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        try {
+            migration.apply(tx);
+        } catch (SQLException | RuntimeException e) {
+            throw new MigrationException("Migration " + migration.getVersion() + " (" + migration.getDescription() + ") failed", e);
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("version", migration.getVersion());
+        row.put("description", migration.getDescription());
+        row.put("checksum", migration.getChecksum());
+        row.put("applied_at", start);
+        row.put("duration", System.currentTimeMillis() - start);
+        database.insert(historyTable, row);
+
+        if (database.isDebug())
+            Bukkit.getLogger().log(Level.INFO, "[FrameworkAPI Debug] Applied migration " + migration.getVersion() + ": " + migration.getDescription());
+        return null;
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.pool;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pool of JDBC connections
+ * <p></p>
+ * <p>Connections are leased for a single operation and handed back when the</p>
+ * <p>{@link PooledConnection} is closed. Idle connections are validated before</p>
+ * <p>they're leased again, evicted once they've been idle for too long, and</p>
+ * <p>recycled once they reach their maximum lifetime, so a socket the server</p>
+ * <p>killed never reaches a caller.</p>
+ * <p></p>
+ * <pre>
+ *     try (PooledConnection lease = pool.lease()) {
+ *         lease.getConnection().prepareStatement(...);
+ *     }
+ * </pre>
+ */
+public class ConnectionPool {
+
+    @Getter
+    private final String name;
+    @Getter
+    private final PoolSettings settings;
+    private final ConnectionFactory factory;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService housekeeper;
+
+    private int total;
+    private int active;
+    private int waiting;
+    private boolean closed;
+
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong closedConnections = new AtomicLong();
+
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    public ConnectionPool(@NotNull String name, @NotNull PoolSettings settings, @NotNull ConnectionFactory factory) {
+        this.name = name;
+        this.settings = settings;
+        this.factory = factory;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "Framework-Pool-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::evict, settings.getHousekeepingInterval(), settings.getHousekeepingInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lease a connection from the pool, waiting up to {@code connectionTimeout} for one to become free
+     *
+     * @return The leased connection, which must be closed to hand it back
+     * @throws SQLTimeoutException if no connection became free in time
+     * @throws SQLException        if a new connection could not be opened
+     */
+    @NotNull
+    public PooledConnection lease() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.getConnectionTimeout());
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (candidate == null && !create) {
+                    if (closed)
+                        throw new SQLException("Connection pool " + name + " is closed");
+
+                    if (!idle.isEmpty()) {
+                        candidate = idle.pollFirst();
+                        active++;
+                    } else if (total < settings.getMaximumPoolSize()) {
+                        total++;
+                        active++;
+                        create = true;
+                    } else {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            timeouts.incrementAndGet();
+                            throw new SQLTimeoutException("Timed out after " + settings.getConnectionTimeout() + "ms waiting for a connection from pool " + name);
+                        }
+
+                        waiting++;
+                        try {
+                            available.awaitNanos(remaining);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new SQLException("Interrupted while waiting for a connection from pool " + name, e);
+                        } finally {
+                            waiting--;
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    Connection connection = factory.create();
+                    StatementCache cache = new StatementCache(connection, settings.getStatementCacheSize(), statementHits, statementMisses, statementEvictions);
+                    candidate = new PooledConnection(this, connection, cache);
+                    created.incrementAndGet();
+                } catch (SQLException | RuntimeException e) {
+                    forget();
+                    throw e;
+                }
+            } else if (!isUsable(candidate)) {
+                candidate.closePhysical();
+                closedConnections.incrementAndGet();
+                forget();
+                continue;
+            }
+
+            candidate.setLeased(true);
+            recordWait(System.nanoTime() - start);
+            return candidate;
+        }
+    }
+
+    /**
+     * Hand a leased connection back to the pool
+     *
+     * @param connection The connection you'd like to hand back
+     */
+    void release(@NotNull PooledConnection connection) {
+        // Closing the same connection from two threads must only hand it back once
+        lock.lock();
+        try {
+            if (!connection.isLeased())
+                return;
+            connection.setLeased(false);
+        } finally {
+            lock.unlock();
+        }
+        connection.getStatementCache().closeUncached();
+
+        boolean reusable;
+        try {
+            if (!connection.getConnection().getAutoCommit())
+                connection.getConnection().rollback();
+            connection.getConnection().setAutoCommit(true);
+            reusable = !connection.getConnection().isClosed() && !isExpired(connection, System.currentTimeMillis());
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        lock.lock();
+        try {
+            active--;
+            if (reusable && !closed) {
+                connection.setLastUsedAt(System.currentTimeMillis());
+                idle.addFirst(connection);
+            } else {
+                total--;
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (!reusable || closed) {
+            connection.closePhysical();
+            closedConnections.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get a snapshot of this pool's metrics
+     *
+     * @return The metrics snapshot
+     */
+    @NotNull
+    public PoolMetrics getMetrics() {
+        lock.lock();
+        try {
+            return new PoolMetrics(
+                    active,
+                    idle.size(),
+                    total,
+                    waiting,
+                    leases.get(),
+                    totalWaitNanos.get(),
+                    maxWaitNanos.get(),
+                    timeouts.get(),
+                    created.get(),
+                    closedConnections.get()
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get a snapshot of the prepared statement cache metrics of every connection in this pool
+     *
+     * @return The metrics snapshot
+     */
+    @NotNull
+    public StatementCacheMetrics getStatementCacheMetrics() {
+        return new StatementCacheMetrics(statementHits.get(), statementMisses.get(), statementEvictions.get());
+    }
+
+    /**
+     * Close the pool and every idle connection in it
+     * <p></p>
+     * <p>Connections which are still leased are closed as soon as they're handed back.</p>
+     */
+    public void close() {
+        List<PooledConnection> toClose;
+
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        housekeeper.shutdownNow();
+        for (PooledConnection connection : toClose) {
+            connection.closePhysical();
+            closedConnections.incrementAndGet();
+        }
+    }
+
+    /**
+     * Close every idle connection, so the next lease opens a fresh one
+     * <p></p>
+     * <p>Leased connections are left alone, and are handed back as usual.</p>
+     */
+    public void clearIdle() {
+        List<PooledConnection> toClose;
+
+        lock.lock();
+        try {
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection connection : toClose) {
+            connection.closePhysical();
+            closedConnections.incrementAndGet();
+        }
+    }
+
+    /**
+     * Closes idle connections which have been idle for too long or have reached their maximum lifetime
+     */
+    private void evict() {
+        List<PooledConnection> toClose = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            Iterator<PooledConnection> iterator = idle.descendingIterator();
+            while (iterator.hasNext()) {
+                PooledConnection connection = iterator.next();
+                boolean idleTooLong = idle.size() > settings.getMinimumIdle() && now - connection.getLastUsedAt() > settings.getIdleTimeout();
+
+                if (idleTooLong || isExpired(connection, now)) {
+                    iterator.remove();
+                    total--;
+                    toClose.add(connection);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection connection : toClose) {
+            connection.closePhysical();
+            closedConnections.incrementAndGet();
+        }
+    }
+
+    private boolean isUsable(PooledConnection connection) {
+        long now = System.currentTimeMillis();
+        if (isExpired(connection, now))
+            return false;
+
+        if (now - connection.getLastUsedAt() < settings.getValidationBypass())
+            return true;
+
+        try {
+            return connection.getConnection().isValid(settings.getValidationTimeout());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection connection, long now) {
+        return settings.getMaxLifetime() > 0 && now - connection.getCreatedAt() > settings.getMaxLifetime();
+    }
+
+    /**
+     * Forgets a leased connection which was never handed out or turned out to be broken
+     */
+    private void forget() {
+        lock.lock();
+        try {
+            active--;
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordWait(long nanos) {
+        leases.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+
+        long max;
+        do {
+            max = maxWaitNanos.get();
+        } while (nanos > max && !maxWaitNanos.compareAndSet(max, nanos));
+    }
+}
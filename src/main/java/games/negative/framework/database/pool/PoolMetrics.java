@@ -0,0 +1,56 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.pool;
+
+import lombok.Data;
+
+/**
+ * A point-in-time snapshot of a {@link ConnectionPool}'s state
+ */
+@Data
+public class PoolMetrics {
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int waiting;
+    private final long leases;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long timeouts;
+    private final long created;
+    private final long closed;
+
+    /**
+     * Get the average time a lease waited for a connection
+     *
+     * @return The average wait, in nanoseconds
+     */
+    public long getAverageWaitNanos() {
+        return leases == 0 ? 0 : totalWaitNanos / leases;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.pool;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for a {@link ConnectionPool}
+ * <p></p>
+ * <p>{@code maximumPoolSize} is the most connections the pool will ever open</p>
+ * <p>{@code minimumIdle} is the amount of idle connections eviction will leave open</p>
+ * <p>{@code connectionTimeout} is how long a lease waits for a free connection, in milliseconds</p>
+ * <p>{@code validationTimeout} is how long a connection gets to answer a validation check, in seconds</p>
+ * <p>{@code validationBypass} is how recently a connection must have been used to skip validation, in milliseconds</p>
+ * <p>{@code idleTimeout} is how long a connection may sit idle before it's closed, in milliseconds</p>
+ * <p>{@code maxLifetime} is how long a connection may live before it's recycled, in milliseconds</p>
+ * <p>{@code housekeepingInterval} is how often idle connections are checked for eviction, in milliseconds</p>
+ * <p>{@code statementCacheSize} is how many prepared statements each connection keeps open, or 0 to disable caching</p>
+ */
+@Data
+public class PoolSettings {
+    private int maximumPoolSize = 10;
+    private int minimumIdle = 2;
+    private long connectionTimeout = TimeUnit.SECONDS.toMillis(30);
+    private int validationTimeout = 5;
+    private long validationBypass = 500;
+    private long idleTimeout = TimeUnit.MINUTES.toMillis(10);
+    private long maxLifetime = TimeUnit.MINUTES.toMillis(30);
+    private long housekeepingInterval = TimeUnit.SECONDS.toMillis(30);
+    private int statementCacheSize = 64;
+}
@@ -0,0 +1,265 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.framework.database.pool;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes read-only leases to a set of replica pools, falling back to the primary
+ * <p></p>
+ * <p>Every replica is checked every {@code healthCheckInterval}. A replica which fails</p>
+ * <p>{@code failureThreshold} checks or reads in a row is ejected, and takes no reads until</p>
+ * <p>a check succeeds again. When no replica is healthy, reads go to the primary.</p>
+ * <p></p>
+ * <p>Replicas are usually a little behind the primary, so a read which must see a write</p>
+ * <p>that was just made should run inside a transaction, which always uses the primary.</p>
+ */
+public class ReplicaSet {
+
+    @Getter
+    private final ConnectionPool primary;
+    @Getter
+    private final ReplicaSettings settings;
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthCheck;
+
+    public ReplicaSet(@NotNull ConnectionPool primary, @NotNull List<ConnectionPool> replicas, @NotNull ReplicaSettings settings) {
+        this.primary = primary;
+        this.settings = settings;
+        for (ConnectionPool replica : replicas)
+            nodes.add(new Node(replica));
+
+        this.healthCheck = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "Framework-Replicas-" + primary.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.healthCheck.scheduleWithFixedDelay(this::check, 0, settings.getHealthCheckInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lease a connection for a read, from a healthy replica if there is one
+     * <p></p>
+     * <p>If the chosen replica can't hand out a connection, the primary is used instead.</p>
+     *
+     * @return The leased connection, which must be closed to hand it back
+     * @throws SQLException if the primary could not hand out a connection either
+     */
+    @NotNull
+    public PooledConnection lease() throws SQLException {
+        Node node = select();
+        if (node != null) {
+            try {
+                PooledConnection lease = node.pool.lease();
+                node.reads.incrementAndGet();
+                return lease;
+            } catch (SQLTimeoutException e) {
+                // The replica is busy rather than broken
+            } catch (SQLException e) {
+                failed(node);
+            }
+        }
+        return primary.lease();
+    }
+
+    /**
+     * Check if a connection was leased from one of the replicas
+     *
+     * @param lease The leased connection
+     * @return Whether it belongs to a replica rather than the primary
+     */
+    public boolean isReplica(@NotNull PooledConnection lease) {
+        return find(lease.getPool()) != null;
+    }
+
+    /**
+     * Record that a read on a replica's connection failed because the connection broke
+     * <p></p>
+     * <p>Enough failures in a row eject the replica until it passes a health check.</p>
+     *
+     * @param lease The connection the read failed on
+     */
+    public void reportFailure(@NotNull PooledConnection lease) {
+        Node node = find(lease.getPool());
+        if (node != null)
+            failed(node);
+    }
+
+    /**
+     * Get a snapshot of every replica's state
+     *
+     * @return The replica states, in the order the replicas were added
+     */
+    @NotNull
+    public List<ReplicaStatus> getStatus() {
+        List<ReplicaStatus> status = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            status.add(new ReplicaStatus(
+                    node.pool.getName(),
+                    node.healthy,
+                    node.failures.get(),
+                    node.latencyNanos,
+                    node.reads.get(),
+                    node.ejections.get()
+            ));
+        }
+        return Collections.unmodifiableList(status);
+    }
+
+    /**
+     * Get the pools of every replica
+     *
+     * @return The replica pools, in the order they were added
+     */
+    @NotNull
+    public List<ConnectionPool> getReplicas() {
+        List<ConnectionPool> pools = new ArrayList<>(nodes.size());
+        for (Node node : nodes)
+            pools.add(node.pool);
+        return Collections.unmodifiableList(pools);
+    }
+
+    /**
+     * Run a health check of every replica straight away
+     */
+    public void checkNow() {
+        check();
+    }
+
+    /**
+     * Stop the health checks and close every replica pool
+     * <p></p>
+     * <p>The primary is left open, as it's owned by the database.</p>
+     */
+    public void close() {
+        healthCheck.shutdownNow();
+        for (Node node : nodes)
+            node.pool.close();
+    }
+
+    /**
+     * Picks the replica to read from
+     *
+     * @return The replica, or null if none is healthy
+     */
+    @Nullable
+    private Node select() {
+        int size = nodes.size();
+        if (size == 0)
+            return null;
+
+        if (settings.getSelection() == ReplicaSettings.Selection.LEAST_LATENCY) {
+            Node best = null;
+            for (Node node : nodes) {
+                if (node.healthy && (best == null || node.latencyNanos < best.latencyNanos))
+                    best = node;
+            }
+            return best;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Node node = nodes.get((start + i) % size);
+            if (node.healthy)
+                return node;
+        }
+        return null;
+    }
+
+    @Nullable
+    private Node find(@NotNull ConnectionPool pool) {
+        for (Node node : nodes) {
+            if (node.pool == pool)
+                return node;
+        }
+        return null;
+    }
+
+    /**
+     * Checks every replica, ejecting the ones which keep failing and rejoining the ones which recovered
+     */
+    private void check() {
+        for (Node node : nodes) {
+            long start = System.nanoTime();
+            try (PooledConnection lease = node.pool.lease()) {
+                if (!lease.getConnection().isValid(node.pool.getSettings().getValidationTimeout()))
+                    throw new SQLException("Connection to replica " + node.pool.getName() + " is not valid");
+
+                long latency = System.nanoTime() - start;
+                double smoothing = settings.getLatencySmoothing();
+                node.latencyNanos = node.checked ? (long) (smoothing * latency + (1 - smoothing) * node.latencyNanos) : latency;
+                node.checked = true;
+                node.failures.set(0);
+                node.healthy = true;
+            } catch (SQLTimeoutException e) {
+                // Every connection is busy, which says nothing about the replica's health
+            } catch (SQLException | RuntimeException e) {
+                failed(node);
+            }
+        }
+    }
+
+    private synchronized void failed(@NotNull Node node) {
+        if (node.failures.incrementAndGet() >= settings.getFailureThreshold() && node.healthy) {
+            node.healthy = false;
+            node.ejections.incrementAndGet();
+            // Idle connections to a replica which went away are most likely broken too
+            node.pool.clearIdle();
+        }
+    }
+
+    private static class Node {
+        private final ConnectionPool pool;
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicLong reads = new AtomicLong();
+        private final AtomicLong ejections = new AtomicLong();
+        private volatile boolean healthy = true;
+        private volatile boolean checked;
+        private volatile long latencyNanos;
+
+        private Node(ConnectionPool pool) {
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.framework.database.pool;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for a {@link ReplicaSet}
+ * <p></p>
+ * <p>{@code selection} is how a replica is picked for each read</p>
+ * <p>{@code healthCheckInterval} is how often every replica is checked, in milliseconds</p>
+ * <p>{@code failureThreshold} is how many failures in a row eject a replica until a check succeeds again</p>
+ * <p>{@code latencySmoothing} is how much weight the newest check gets in a replica's average latency, from 0 to 1</p>
+ */
+@Data
+public class ReplicaSettings {
+    private Selection selection = Selection.ROUND_ROBIN;
+    private long healthCheckInterval = TimeUnit.SECONDS.toMillis(5);
+    private int failureThreshold = 3;
+    private double latencySmoothing = 0.3;
+
+    public enum Selection {
+        /**
+         * Every healthy replica takes a turn
+         */
+        ROUND_ROBIN,
+        /**
+         * The healthy replica with the lowest average latency is used
+         */
+        LEAST_LATENCY
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package games.negative.framework.database.pool;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A least-recently-used cache of {@link PreparedStatement}s for a single connection
+ * <p></p>
+ * <p>Statements are keyed by their SQL, so every call with the same statement shape</p>
+ * <p>only has to rebind its parameters instead of having the driver parse it again.</p>
+ * <p>Cached statements belong to the cache and must not be closed by the caller,</p>
+ * <p>although any {@link java.sql.ResultSet} they return should be. With caching</p>
+ * <p>disabled, statements are closed when the connection goes back to its pool.</p>
+ * <p></p>
+ * <p>A connection is only ever leased by one thread at a time, so the cache isn't synchronized.</p>
+ */
+public class StatementCache {
+
+    private final Connection connection;
+    private final int maximumSize;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private final List<PreparedStatement> uncached = new ArrayList<>();
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    StatementCache(Connection connection, int maximumSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.connection = connection;
+        this.maximumSize = maximumSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get a prepared statement for some SQL, preparing it if it isn't cached yet
+     *
+     * @param sql The SQL you'd like to prepare
+     * @return The prepared statement, with its parameters cleared
+     * @throws SQLException if the statement could not be prepared
+     */
+    @NotNull
+    public PreparedStatement prepare(@NotNull String sql) throws SQLException {
+        if (maximumSize <= 0) {
+            misses.incrementAndGet();
+            PreparedStatement statement = connection.prepareStatement(sql);
+            uncached.add(statement);
+            return statement;
+        }
+
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null && !statement.isClosed()) {
+            hits.incrementAndGet();
+            statement.clearParameters();
+            return statement;
+        }
+
+        misses.incrementAndGet();
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+
+        if (statements.size() > maximumSize) {
+            Iterator<Map.Entry<String, PreparedStatement>> iterator = statements.entrySet().iterator();
+            PreparedStatement eldest = iterator.next().getValue();
+            iterator.remove();
+            evictions.incrementAndGet();
+            closeQuietly(eldest);
+        }
+
+        return statement;
+    }
+
+    /**
+     * Close the statements which were prepared while caching is disabled
+     */
+    void closeUncached() {
+        for (PreparedStatement statement : uncached)
+            closeQuietly(statement);
+        uncached.clear();
+    }
+
+    /**
+     * Close every statement
+     */
+    void close() {
+        closeUncached();
+        for (PreparedStatement statement : statements.values())
+            closeQuietly(statement);
+        statements.clear();
+    }
+
+    private void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
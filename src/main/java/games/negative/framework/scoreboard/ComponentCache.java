@@ -0,0 +1,195 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.framework.scoreboard;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of chat components converted from scoreboard text.
+ * <p>
+ * Lines such as the server name or IP are usually the same for every player, so caching
+ * their components converts them once per server instead of once per player and update.
+ * <p>
+ * A {@link ScoreboardManager} with worker threads converts text on all of its workers at once,
+ * so the text is spread by hash over up to 16 maps with a lock each instead of one shared map.
+ * Each map holds its share of {@code maximumSize} and drops the text it used least recently.
+ *
+ * @see Scoreboard#setComponentCache(ComponentCache)
+ */
+public class ComponentCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final int maximumSize;
+    private final int maximumLength;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * Creates a new component cache.
+     *
+     * @param maximumSize   the most components kept
+     * @param maximumLength the longest text whose component is kept, as long text is rarely repeated
+     */
+    public ComponentCache(int maximumSize, int maximumLength) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive, got " + maximumSize);
+        }
+
+        this.maximumSize = maximumSize;
+        this.maximumLength = maximumLength;
+
+        int count = Math.min(SEGMENTS, maximumSize);
+        int capacity = (maximumSize + count - 1) / count;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * Get the component converted from some text.
+     * <p>
+     * Text longer than {@code maximumLength} is never cached, so it isn't looked up or counted as a miss;
+     * it's counted as skipped once its component is {@link #put(String, Object) put}.
+     *
+     * @param text the text
+     * @return the component, or null if it isn't cached
+     */
+    @Nullable
+    public Object get(@NotNull String text) {
+        if (text.length() > this.maximumLength) {
+            return null;
+        }
+
+        Segment segment = segment(text);
+        Object component;
+        synchronized (segment) {
+            component = segment.get(text);
+        }
+
+        if (component == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+        return component;
+    }
+
+    /**
+     * Cache the component converted from some text, unless the text is too long.
+     *
+     * @param text      the text
+     * @param component the component
+     */
+    public void put(@NotNull String text, @NotNull Object component) {
+        if (text.length() > this.maximumLength) {
+            this.skipped.increment();
+            return;
+        }
+
+        Segment segment = segment(text);
+        synchronized (segment) {
+            segment.put(text, component);
+        }
+    }
+
+    /**
+     * Drop every cached component.
+     */
+    public void clear() {
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Get the number of cached components.
+     *
+     * @return the number of cached components
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Take a snapshot of this cache's statistics.
+     *
+     * @return the statistics
+     */
+    @NotNull
+    public ComponentCacheStats getStats() {
+        return new ComponentCacheStats(this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.skipped.sum(), size(), this.maximumSize);
+    }
+
+    private Segment segment(String text) {
+        int hash = text.hashCode();
+        return this.segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % this.segments.length];
+    }
+
+    /**
+     * A part of the cache, ordered from least to most recently used.
+     */
+    private final class Segment extends LinkedHashMap<String, Object> {
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            if (size() <= this.capacity) {
+                return false;
+            }
+
+            evictions.increment();
+            return true;
+        }
+    }
+}
@@ -40,6 +40,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
 
 /**
  * Lightweight packet-based scoreboard API for Bukkit plugins.
@@ -52,7 +53,6 @@ import java.util.concurrent.ThreadLocalRandom;
  */
 public class Scoreboard {
 
-    private static final Map<Class<?>, Field[]> PACKETS = new HashMap<>(8);
     private static final String[] COLOR_CODES = Arrays.stream(ChatColor.values())
             .map(Object::toString)
             .toArray(String[]::new);
@@ -78,6 +78,36 @@ public class Scoreboard {
     private static final Object ENUM_SB_HEALTH_DISPLAY_INTEGER;
     private static final Object ENUM_SB_ACTION_CHANGE;
     private static final Object ENUM_SB_ACTION_REMOVE;
+    // Packet field setters, resolved once by field type and position
+    private static final MethodType OBJECT_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType INT_SETTER = MethodType.methodType(void.class, Object.class, int.class);
+    private static final MethodHandle OBJ_NAME;
+    private static final MethodHandle OBJ_MODE;
+    private static final MethodHandle OBJ_DISPLAY_NAME;
+    private static final MethodHandle OBJ_HEALTH_DISPLAY;
+    private static final MethodHandle DISPLAY_OBJ_POSITION;
+    private static final MethodHandle DISPLAY_OBJ_NAME;
+    private static final MethodHandle SCORE_PLAYER;
+    private static final MethodHandle SCORE_OBJECTIVE;
+    private static final MethodHandle SCORE_ACTION;
+    private static final MethodHandle SCORE_LEGACY_ACTION;
+    private static final MethodHandle SCORE_VALUE;
+    private static final MethodHandle TEAM_NAME;
+    private static final MethodHandle TEAM_MODE;
+    private static final MethodHandle TEAM_PREFIX;
+    private static final MethodHandle TEAM_SUFFIX;
+    private static final MethodHandle TEAM_VISIBILITY;
+    private static final MethodHandle TEAM_COLLISIONS;
+    private static final MethodHandle TEAM_PLAYERS;
+    private static final MethodHandle TEAM_PARAMETERS;
+    private static final MethodHandle SB_TEAM_DISPLAY_NAME;
+    private static final MethodHandle SB_TEAM_COLOR;
+    private static final MethodHandle SB_TEAM_PREFIX;
+    private static final MethodHandle SB_TEAM_SUFFIX;
+    private static final MethodHandle SB_TEAM_VISIBILITY;
+    private static final MethodHandle SB_TEAM_COLLISIONS;
+    // Components converted from text, shared by every board
+    private static volatile ComponentCache componentCache = new ComponentCache(4096, 256);
 
     static {
         try {
@@ -123,19 +153,6 @@ public class Scoreboard {
             PACKET_SB_TEAM = FastReflection.findPacketConstructor(packetSbTeamClass, lookup);
             PACKET_SB_SERIALIZABLE_TEAM = sbTeamClass == null ? null : FastReflection.findPacketConstructor(sbTeamClass, lookup);
 
-            for (Class<?> clazz : Arrays.asList(packetSbObjClass, packetSbDisplayObjClass, packetSbScoreClass, packetSbTeamClass, sbTeamClass)) {
-                if (clazz == null) {
-                    continue;
-                }
-                Field[] fields = Arrays.stream(clazz.getDeclaredFields())
-                        .filter(field -> !Modifier.isStatic(field.getModifiers()))
-                        .toArray(Field[]::new);
-                for (Field field : fields) {
-                    field.setAccessible(true);
-                }
-                PACKETS.put(clazz, fields);
-            }
-
             if (VersionType.V1_8.isHigherOrEqual()) {
                 String enumSbActionClass = VersionType.V1_13.isHigherOrEqual()
                         ? "ScoreboardServer$Action"
@@ -152,6 +169,37 @@ public class Scoreboard {
                 ENUM_SB_ACTION_CHANGE = null;
                 ENUM_SB_ACTION_REMOVE = null;
             }
+
+            // Components are counted along with strings, as older versions use strings instead
+            Predicate<Class<?>> component = VersionType.V1_13.isHigherOrEqual()
+                    ? type -> type == String.class || type == CHAT_COMPONENT_CLASS
+                    : type -> type == String.class;
+
+            OBJ_NAME = fieldSetter(lookup, packetSbObjClass, String.class, 0);
+            OBJ_MODE = fieldSetter(lookup, packetSbObjClass, int.class, 0);
+            OBJ_DISPLAY_NAME = fieldSetter(lookup, packetSbObjClass, component, 1);
+            OBJ_HEALTH_DISPLAY = fieldSetter(lookup, packetSbObjClass, ENUM_SB_HEALTH_DISPLAY, 0);
+            DISPLAY_OBJ_POSITION = fieldSetter(lookup, packetSbDisplayObjClass, int.class, 0);
+            DISPLAY_OBJ_NAME = fieldSetter(lookup, packetSbDisplayObjClass, String.class, 0);
+            SCORE_PLAYER = fieldSetter(lookup, packetSbScoreClass, String.class, 0);
+            SCORE_OBJECTIVE = fieldSetter(lookup, packetSbScoreClass, String.class, 1);
+            SCORE_ACTION = fieldSetter(lookup, packetSbScoreClass, ENUM_SB_ACTION, 0);
+            SCORE_LEGACY_ACTION = fieldSetter(lookup, packetSbScoreClass, int.class, 1);
+            SCORE_VALUE = fieldSetter(lookup, packetSbScoreClass, int.class, 0);
+            TEAM_NAME = fieldSetter(lookup, packetSbTeamClass, String.class, 0);
+            TEAM_MODE = fieldSetter(lookup, packetSbTeamClass, int.class, VERSION_TYPE == VersionType.V1_8 ? 1 : 0);
+            TEAM_PREFIX = fieldSetter(lookup, packetSbTeamClass, component, 2);
+            TEAM_SUFFIX = fieldSetter(lookup, packetSbTeamClass, component, 3);
+            TEAM_VISIBILITY = fieldSetter(lookup, packetSbTeamClass, String.class, 4); // 1.8+
+            TEAM_COLLISIONS = fieldSetter(lookup, packetSbTeamClass, String.class, 5); // 1.9+
+            TEAM_PLAYERS = fieldSetter(lookup, packetSbTeamClass, Collection.class, 0);
+            TEAM_PARAMETERS = fieldSetter(lookup, packetSbTeamClass, Optional.class, 0); // 1.17+
+            SB_TEAM_DISPLAY_NAME = fieldSetter(lookup, sbTeamClass, component, 0);
+            SB_TEAM_COLOR = fieldSetter(lookup, sbTeamClass, CHAT_FORMAT_ENUM, 0);
+            SB_TEAM_PREFIX = fieldSetter(lookup, sbTeamClass, component, 1);
+            SB_TEAM_SUFFIX = fieldSetter(lookup, sbTeamClass, component, 2);
+            SB_TEAM_VISIBILITY = fieldSetter(lookup, sbTeamClass, String.class, 0);
+            SB_TEAM_COLLISIONS = fieldSetter(lookup, sbTeamClass, String.class, 1);
         } catch (Throwable t) {
             throw new ExceptionInInitializerError(t);
         }
@@ -163,7 +211,18 @@ public class Scoreboard {
     private final List<String> lines = new ArrayList<>();
     private String title = ChatColor.RESET.toString();
 
+    // What the player currently sees, while updates are deferred
+    private final List<String> sentLines = new ArrayList<>();
+    private String sentTitle = this.title;
+    private boolean deferred = false;
+    private boolean dirty = false;
+
     private boolean deleted = false;
+    private volatile long packetsSent = 0;
+    // Packets are collected here instead of sent while an update is prepared
+    private List<Object> preparedPackets = null;
+    // The last prepared packets which weren't sent yet, which later updates are sent after
+    private List<Object> unsentPackets = null;
 
     /**
      * Creates a new FastBoard.
@@ -171,7 +230,19 @@ public class Scoreboard {
      * @param player the owner of the scoreboard
      */
     public Scoreboard(@NotNull Player player) {
+        this(player, false);
+    }
+
+    /**
+     * Creates a new FastBoard.
+     *
+     * @param player   the owner of the scoreboard
+     * @param deferred whether updates are sent by the next tick's flush instead of straight away
+     * @see #setDeferred(boolean)
+     */
+    public Scoreboard(@NotNull Player player, boolean deferred) {
         this.player = Objects.requireNonNull(player, "player");
+        this.deferred = deferred;
         this.id = "sb-" + Integer.toHexString(ThreadLocalRandom.current().nextInt());
 
         try {
@@ -199,7 +270,7 @@ public class Scoreboard {
      * @throws IllegalArgumentException if the title is longer than 32 chars on 1.12 or lower
      * @throws IllegalStateException    if {@link #delete()} was call before
      */
-    public void updateTitle(String title) {
+    public synchronized void updateTitle(String title) {
         if (this.title.equals(Objects.requireNonNull(title, "title"))) {
             return;
         }
@@ -210,6 +281,11 @@ public class Scoreboard {
 
         this.title = title;
 
+        if (this.deferred) {
+            markDirty();
+            return;
+        }
+
         try {
             sendObjectivePacket(ObjectiveMode.UPDATE);
         } catch (Throwable t) {
@@ -254,7 +330,11 @@ public class Scoreboard {
             if (line < size()) {
                 this.lines.set(line, text);
 
-                sendTeamPacket(getScoreByLine(line), TeamMode.UPDATE);
+                if (this.deferred) {
+                    markDirty();
+                } else {
+                    sendTeamPacket(getScoreByLine(line), TeamMode.UPDATE);
+                }
                 return;
             }
 
@@ -323,40 +403,199 @@ public class Scoreboard {
             }
         }
 
+        if (this.lines.equals(lines)) {
+            return;
+        }
+
         List<String> oldLines = new ArrayList<>(this.lines);
         this.lines.clear();
         this.lines.addAll(lines);
 
-        int linesSize = this.lines.size();
+        if (this.deferred) {
+            markDirty();
+            return;
+        }
 
         try {
-            if (oldLines.size() != linesSize) {
-                List<String> oldLinesCopy = new ArrayList<>(oldLines);
+            sendLines(oldLines);
+        } catch (Throwable t) {
+            throw new RuntimeException("Unable to update scoreboard lines", t);
+        }
+    }
 
-                if (oldLines.size() > linesSize) {
-                    for (int i = oldLinesCopy.size(); i > linesSize; i--) {
-                        sendTeamPacket(i - 1, TeamMode.REMOVE);
-                        sendScorePacket(i - 1, ScoreboardAction.REMOVE);
+    /**
+     * Get if updates are deferred to the next flush.
+     *
+     * @return true if updates are deferred
+     */
+    public synchronized boolean isDeferred() {
+        return this.deferred;
+    }
 
-                        oldLines.remove(0);
-                    }
-                } else {
-                    for (int i = oldLinesCopy.size(); i < linesSize; i++) {
-                        sendScorePacket(i, ScoreboardAction.CHANGE);
-                        sendTeamPacket(i, TeamMode.CREATE);
+    /**
+     * Set if updates are deferred to the next flush.
+     * <p>
+     * While deferred, updates only change the board's state and the shared {@link ScoreboardFlusher}
+     * task sends the final state of every changed line once per tick, so updating the same line
+     * twice in a tick sends a single packet. Turning deferring off flushes pending changes straight away.
+     *
+     * @param deferred whether updates should be deferred
+     */
+    public synchronized void setDeferred(boolean deferred) {
+        if (this.deferred == deferred) {
+            return;
+        }
 
-                        oldLines.add(oldLines.size() - i, getLineByScore(i));
-                    }
-                }
+        if (deferred) {
+            this.sentLines.clear();
+            this.sentLines.addAll(this.lines);
+            this.sentTitle = this.title;
+            this.deferred = true;
+            return;
+        }
+
+        flush();
+        this.deferred = false;
+    }
+
+    /**
+     * Send the pending changes of a deferred board now, instead of waiting for the next tick.
+     * Only lines which differ from what the player currently sees are sent.
+     */
+    public synchronized void flush() {
+        if (!this.dirty || this.deleted) {
+            return;
+        }
+
+        this.dirty = false;
+
+        try {
+            if (!this.title.equals(this.sentTitle)) {
+                sendObjectivePacket(ObjectiveMode.UPDATE);
+                this.sentTitle = this.title;
             }
 
-            for (int i = 0; i < linesSize; i++) {
-                if (!Objects.equals(getLineByScore(oldLines, i), getLineByScore(i))) {
-                    sendTeamPacket(i, TeamMode.UPDATE);
-                }
+            sendLines(new ArrayList<>(this.sentLines));
+            this.sentLines.clear();
+            this.sentLines.addAll(this.lines);
+        } catch (Throwable t) {
+            throw new RuntimeException("Unable to flush scoreboard", t);
+        }
+    }
+
+    /**
+     * Update the title and lines like {@link #updateTitle(String)} and {@link #updateLines(Collection)},
+     * but only build the packets instead of sending them.
+     * <p>
+     * This does all the text conversion and packet construction, so it can run off the main thread.
+     * The packets must then be sent with {@link #sendPackets(List)}, in the order they were prepared.
+     * Until they are, updates made directly on this board are added to the end of the returned list
+     * instead of being sent, so the prepared packets can't overwrite them.
+     *
+     * @param title the new title, or null to keep the current one
+     * @param lines the new lines, or null to keep the current ones
+     * @return the packets to send, which is empty if nothing changed
+     */
+    @NotNull
+    public synchronized List<Object> prepareUpdate(String title, Collection<String> lines) {
+        List<Object> packets = new ArrayList<>();
+        if (this.deleted) {
+            return packets;
+        }
+
+        this.preparedPackets = packets;
+
+        try {
+            if (title != null) {
+                updateTitle(title);
+            }
+            if (lines != null) {
+                updateLines(lines);
+            }
+
+            // A deferred board only marked its changes, so they're prepared now instead of by the next flush
+            flush();
+        } finally {
+            this.preparedPackets = null;
+        }
+
+        if (!packets.isEmpty()) {
+            this.unsentPackets = packets;
+        }
+        return packets;
+    }
+
+    /**
+     * Send packets built by {@link #prepareUpdate(String, Collection)} through the player's connection.
+     * Packets prepared for a board which has been deleted since are dropped.
+     *
+     * @param packets the prepared packets
+     */
+    public synchronized void sendPackets(@NotNull List<Object> packets) {
+        if (packets == this.unsentPackets) {
+            this.unsentPackets = null;
+        }
+        if (packets.isEmpty() || this.deleted || !this.player.isOnline()) {
+            return;
+        }
+
+        try {
+            Object entityPlayer = PLAYER_GET_HANDLE.invoke(this.player);
+            Object playerConnection = PLAYER_CONNECTION.invoke(entityPlayer);
+            for (Object packet : packets) {
+                SEND_PACKET.invoke(playerConnection, packet);
             }
+            this.packetsSent += packets.size();
         } catch (Throwable t) {
-            throw new RuntimeException("Unable to update scoreboard lines", t);
+            throw new RuntimeException("Unable to send scoreboard packets", t);
+        }
+    }
+
+    private void markDirty() {
+        if (!this.dirty) {
+            this.dirty = true;
+            try {
+                ScoreboardFlusher.schedule(this);
+            } catch (RuntimeException e) {
+                // Otherwise every later change would think a flush is already on its way
+                this.dirty = false;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Send the lines which changed since the player was sent {@code oldLines}.
+     *
+     * @param oldLines the lines the player currently sees, which is changed by this method
+     */
+    private void sendLines(List<String> oldLines) throws Throwable {
+        int linesSize = this.lines.size();
+
+        if (oldLines.size() != linesSize) {
+            List<String> oldLinesCopy = new ArrayList<>(oldLines);
+
+            if (oldLines.size() > linesSize) {
+                for (int i = oldLinesCopy.size(); i > linesSize; i--) {
+                    sendTeamPacket(i - 1, TeamMode.REMOVE);
+                    sendScorePacket(i - 1, ScoreboardAction.REMOVE);
+
+                    oldLines.remove(0);
+                }
+            } else {
+                for (int i = oldLinesCopy.size(); i < linesSize; i++) {
+                    sendScorePacket(i, ScoreboardAction.CHANGE);
+                    sendTeamPacket(i, TeamMode.CREATE);
+
+                    oldLines.add(oldLines.size() - i, getLineByScore(i));
+                }
+            }
+        }
+
+        for (int i = 0; i < linesSize; i++) {
+            if (!Objects.equals(getLineByScore(oldLines, i), getLineByScore(i))) {
+                sendTeamPacket(i, TeamMode.UPDATE);
+            }
         }
     }
 
@@ -387,6 +626,15 @@ public class Scoreboard {
         return this.deleted;
     }
 
+    /**
+     * Get the number of packets sent to the player by this scoreboard.
+     *
+     * @return the number of sent packets
+     */
+    public long getPacketsSent() {
+        return this.packetsSent;
+    }
+
     /**
      * Get the scoreboard size (the number of lines).
      *
@@ -402,9 +650,14 @@ public class Scoreboard {
      *
      * @throws IllegalStateException if this was already call before
      */
-    public void delete() {
+    public synchronized void delete() {
+        // The prepared packets are dropped once the board is deleted, so the removal is sent straight away
+        this.unsentPackets = null;
+
         try {
-            for (int i = 0; i < this.lines.size(); i++) {
+            // A deferred board may have lines the player was never sent
+            int sentSize = this.deferred ? this.sentLines.size() : this.lines.size();
+            for (int i = 0; i < sentSize; i++) {
                 sendTeamPacket(i, TeamMode.REMOVE);
             }
 
@@ -456,17 +709,17 @@ public class Scoreboard {
     private void sendObjectivePacket(ObjectiveMode mode) throws Throwable {
         Object packet = PACKET_SB_OBJ.invoke();
 
-        setField(packet, String.class, this.id);
-        setField(packet, int.class, mode.ordinal());
+        OBJ_NAME.invokeExact(packet, (Object) this.id);
+        OBJ_MODE.invokeExact(packet, mode.ordinal());
 
         if (mode != ObjectiveMode.REMOVE) {
-            setComponentField(packet, this.title, 1);
+            OBJ_DISPLAY_NAME.invokeExact(packet, toComponent(this.title));
 
             if (VersionType.V1_8.isHigherOrEqual()) {
-                setField(packet, ENUM_SB_HEALTH_DISPLAY, ENUM_SB_HEALTH_DISPLAY_INTEGER);
+                OBJ_HEALTH_DISPLAY.invokeExact(packet, ENUM_SB_HEALTH_DISPLAY_INTEGER);
             }
         } else if (VERSION_TYPE == VersionType.V1_7) {
-            setField(packet, String.class, "", 1);
+            OBJ_DISPLAY_NAME.invokeExact(packet, (Object) "");
         }
 
         sendPacket(packet);
@@ -475,8 +728,8 @@ public class Scoreboard {
     private void sendDisplayObjectivePacket() throws Throwable {
         Object packet = PACKET_SB_DISPLAY_OBJ.invoke();
 
-        setField(packet, int.class, 1); // Position (1: sidebar)
-        setField(packet, String.class, this.id); // Score Name
+        DISPLAY_OBJ_POSITION.invokeExact(packet, 1); // Position (1: sidebar)
+        DISPLAY_OBJ_NAME.invokeExact(packet, (Object) this.id); // Score Name
 
         sendPacket(packet);
     }
@@ -484,17 +737,17 @@ public class Scoreboard {
     private void sendScorePacket(int score, ScoreboardAction action) throws Throwable {
         Object packet = PACKET_SB_SCORE.invoke();
 
-        setField(packet, String.class, COLOR_CODES[score], 0); // Player Name
+        SCORE_PLAYER.invokeExact(packet, (Object) COLOR_CODES[score]); // Player Name
 
         if (VersionType.V1_8.isHigherOrEqual()) {
-            setField(packet, ENUM_SB_ACTION, action == ScoreboardAction.REMOVE ? ENUM_SB_ACTION_REMOVE : ENUM_SB_ACTION_CHANGE);
+            SCORE_ACTION.invokeExact(packet, action == ScoreboardAction.REMOVE ? ENUM_SB_ACTION_REMOVE : ENUM_SB_ACTION_CHANGE);
         } else {
-            setField(packet, int.class, action.ordinal(), 1); // Action
+            SCORE_LEGACY_ACTION.invokeExact(packet, action.ordinal()); // Action
         }
 
         if (action == ScoreboardAction.CHANGE) {
-            setField(packet, String.class, this.id, 1); // Objective Name
-            setField(packet, int.class, score); // Score
+            SCORE_OBJECTIVE.invokeExact(packet, (Object) this.id); // Objective Name
+            SCORE_VALUE.invokeExact(packet, score); // Score
         }
 
         sendPacket(packet);
@@ -508,8 +761,8 @@ public class Scoreboard {
         int maxLength = hasLinesMaxLength() ? 16 : 1024;
         Object packet = PACKET_SB_TEAM.invoke();
 
-        setField(packet, String.class, this.id + ':' + score); // Team name
-        setField(packet, int.class, mode.ordinal(), VERSION_TYPE == VersionType.V1_8 ? 1 : 0); // Update mode
+        TEAM_NAME.invokeExact(packet, (Object) (this.id + ':' + score)); // Team name
+        TEAM_MODE.invokeExact(packet, mode.ordinal()); // Update mode
 
         if (mode == TeamMode.CREATE || mode == TeamMode.UPDATE) {
             String line = getLineByScore(score);
@@ -546,22 +799,22 @@ public class Scoreboard {
             if (VersionType.V1_17.isHigherOrEqual()) {
                 Object team = PACKET_SB_SERIALIZABLE_TEAM.invoke();
                 // Since the packet is initialized with null values, we need to change more things.
-                setComponentField(team, "", 0); // Display name
-                setField(team, CHAT_FORMAT_ENUM, RESET_FORMATTING); // Color
-                setComponentField(team, prefix, 1); // Prefix
-                setComponentField(team, suffix == null ? "" : suffix, 2); // Suffix
-                setField(team, String.class, "always", 0); // Visibility
-                setField(team, String.class, "always", 1); // Collisions
-                setField(packet, Optional.class, Optional.of(team));
+                SB_TEAM_DISPLAY_NAME.invokeExact(team, EMPTY_MESSAGE); // Display name
+                SB_TEAM_COLOR.invokeExact(team, RESET_FORMATTING); // Color
+                SB_TEAM_PREFIX.invokeExact(team, toComponent(prefix)); // Prefix
+                SB_TEAM_SUFFIX.invokeExact(team, toComponent(suffix == null ? "" : suffix)); // Suffix
+                SB_TEAM_VISIBILITY.invokeExact(team, (Object) "always"); // Visibility
+                SB_TEAM_COLLISIONS.invokeExact(team, (Object) "always"); // Collisions
+                TEAM_PARAMETERS.invokeExact(packet, (Object) Optional.of(team));
             } else {
-                setComponentField(packet, prefix, 2); // Prefix
-                setComponentField(packet, suffix == null ? "" : suffix, 3); // Suffix
-                setField(packet, String.class, "always", 4); // Visibility for 1.8+
-                setField(packet, String.class, "always", 5); // Collisions for 1.9+
+                TEAM_PREFIX.invokeExact(packet, toComponent(prefix)); // Prefix
+                TEAM_SUFFIX.invokeExact(packet, toComponent(suffix == null ? "" : suffix)); // Suffix
+                TEAM_VISIBILITY.invokeExact(packet, (Object) "always"); // Visibility for 1.8+
+                TEAM_COLLISIONS.invokeExact(packet, (Object) "always"); // Collisions for 1.9+
             }
 
             if (mode == TeamMode.CREATE) {
-                setField(packet, Collection.class, Collections.singletonList(COLOR_CODES[score])); // Players in the team
+                TEAM_PLAYERS.invokeExact(packet, (Object) Collections.singletonList(COLOR_CODES[score])); // Players in the team
             }
         }
 
@@ -573,38 +826,97 @@ public class Scoreboard {
             throw new IllegalStateException("This FastBoard is deleted");
         }
 
+        if (this.preparedPackets != null) {
+            this.preparedPackets.add(packet);
+            return;
+        }
+
+        // Sent straight away, this would arrive before the older prepared packets
+        if (this.unsentPackets != null) {
+            this.unsentPackets.add(packet);
+            return;
+        }
+
         if (this.player.isOnline()) {
             Object entityPlayer = PLAYER_GET_HANDLE.invoke(this.player);
             Object playerConnection = PLAYER_CONNECTION.invoke(entityPlayer);
             SEND_PACKET.invoke(playerConnection, packet);
+            this.packetsSent++;
         }
     }
 
-    private void setField(Object object, Class<?> fieldType, Object value) throws ReflectiveOperationException {
-        setField(object, fieldType, value, 0);
+    /**
+     * Get the cache chat components converted from text are kept in, shared by every board.
+     *
+     * @return the cache, or null if text is converted every time
+     */
+    public static ComponentCache getComponentCache() {
+        return componentCache;
     }
 
-    private void setField(Object packet, Class<?> fieldType, Object value, int count) throws ReflectiveOperationException {
-        int i = 0;
-        for (Field field : PACKETS.get(packet.getClass())) {
-            if (field.getType() == fieldType && count == i++) {
-                field.set(packet, value);
-            }
-        }
+    /**
+     * Set the cache chat components converted from text are kept in, shared by every board.
+     * Components are only used from 1.13, older versions send the text as it is.
+     *
+     * @param cache the cache, or null to convert text every time
+     */
+    public static void setComponentCache(ComponentCache cache) {
+        componentCache = cache;
     }
 
-    private void setComponentField(Object packet, String value, int count) throws Throwable {
+    private static Object toComponent(String value) throws Throwable {
         if (!VersionType.V1_13.isHigherOrEqual()) {
-            setField(packet, String.class, value, count);
-            return;
+            return value;
+        }
+
+        if (value.isEmpty()) {
+            return EMPTY_MESSAGE;
         }
 
-        int i = 0;
-        for (Field field : PACKETS.get(packet.getClass())) {
-            if ((field.getType() == String.class || field.getType() == CHAT_COMPONENT_CLASS) && count == i++) {
-                field.set(packet, value.isEmpty() ? EMPTY_MESSAGE : Array.get(MESSAGE_FROM_STRING.invoke(value), 0));
+        ComponentCache cache = componentCache;
+        Object component = cache == null ? null : cache.get(value);
+        if (component == null) {
+            component = Array.get(MESSAGE_FROM_STRING.invoke(value), 0);
+            if (cache != null) {
+                cache.put(value, component);
+            }
+        }
+        return component;
+    }
+
+    private static MethodHandle fieldSetter(MethodHandles.Lookup lookup, Class<?> packetClass, Class<?> fieldType, int count) throws ReflectiveOperationException {
+        return fieldSetter(lookup, packetClass, type -> type == fieldType, count);
+    }
+
+    /**
+     * Resolve the setter of a packet field by its position among the fields of the same type.
+     * Fields missing on this version get a setter which does nothing, like the field scan used to.
+     *
+     * @param lookup      the lookup to unreflect the field with
+     * @param packetClass the packet class, or null if it doesn't exist on this version
+     * @param fieldType   the types of field to count
+     * @param count       the position of the field among the fields matching {@code fieldType}
+     * @return a setter of type {@code (Object, int)void} for int fields, {@code (Object, Object)void} otherwise
+     */
+    private static MethodHandle fieldSetter(MethodHandles.Lookup lookup, Class<?> packetClass, Predicate<Class<?>> fieldType, int count) throws ReflectiveOperationException {
+        if (packetClass != null) {
+            int i = 0;
+            for (Field field : packetClass.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || !fieldType.test(field.getType()) || count != i++) {
+                    continue;
+                }
+
+                field.setAccessible(true);
+                return lookup.unreflectSetter(field).asType(field.getType() == int.class ? INT_SETTER : OBJECT_SETTER);
             }
         }
+
+        // Java 8 has no MethodHandles.empty, so the setter of a missing field drops both arguments
+        MethodHandle ignore = lookup.findStatic(Scoreboard.class, "ignoreField", MethodType.methodType(void.class));
+        return MethodHandles.dropArguments(ignore, 0, Object.class, fieldType.test(int.class) ? int.class : Object.class);
+    }
+
+    private static void ignoreField() {
     }
 
     enum ObjectiveMode {
@@ -0,0 +1,121 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.framework.scoreboard;
+
+import games.negative.framework.BasePlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+
+/**
+ * Flushes every deferred {@link Scoreboard} with pending changes once per tick.
+ * <p>
+ * A single repeating task is shared by all boards. It's started by the first
+ * deferred update, using {@link BasePlugin#getInst()}, unless it was started
+ * before with {@link #start(JavaPlugin)}.
+ */
+public final class ScoreboardFlusher {
+
+    private static final Queue<Scoreboard> PENDING = new ConcurrentLinkedQueue<>();
+    private static volatile BukkitTask task;
+
+    private ScoreboardFlusher() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Start the shared flush task, if it isn't running yet.
+     *
+     * @param plugin the plugin owning the task
+     */
+    public static synchronized void start(@NotNull JavaPlugin plugin) {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, ScoreboardFlusher::flushAll, 1, 1);
+        }
+    }
+
+    /**
+     * Stop the shared flush task. Boards with pending changes keep them until the task is started again.
+     */
+    public static synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Flush every board with pending changes now.
+     *
+     * @return the number of flushed boards
+     */
+    public static int flushAll() {
+        int flushed = 0;
+        Scoreboard board;
+        while ((board = PENDING.poll()) != null) {
+            try {
+                board.flush();
+                flushed++;
+            } catch (RuntimeException e) {
+                Bukkit.getLogger().log(Level.WARNING, "[FrameworkAPI] Failed to flush scoreboard " + board.getId(), e);
+            }
+        }
+        return flushed;
+    }
+
+    /**
+     * Get the number of boards waiting for the next flush.
+     *
+     * @return the number of pending boards
+     */
+    public static int getPendingCount() {
+        return PENDING.size();
+    }
+
+    static void schedule(Scoreboard board) {
+        if (task == null) {
+            synchronized (ScoreboardFlusher.class) {
+                if (task == null) {
+                    BasePlugin plugin = BasePlugin.getInst();
+                    if (plugin == null) {
+                        throw new IllegalStateException("No flush task is running, call ScoreboardFlusher.start(plugin) first");
+                    }
+                    start(plugin);
+                }
+            }
+        }
+
+        PENDING.add(board);
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ *  MIT License
+ *
+ * Copyright (C) 2022 Negative Games & Developers
+ * Copyright (C) 2022 NegativeDev (NegativeKB, Eric)
+ * Copyright (C) 2022 Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package games.negative.framework.scoreboard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Owns a {@link Scoreboard} for every online player and renders them all from one repeating task.
+ * <p>
+ * A board is created when a player joins and deleted when they quit. Every {@code interval} ticks,
+ * each board's {@link ScoreboardRenderer} is asked for its title and lines, which are compared with
+ * what the player was last sent so only the changed lines are sent again.
+ * <p>
+ * With worker threads, renderers are called and packets are built on the workers instead of the
+ * main thread, and every tick the main thread sends all the packets which were prepared since in one batch.
+ * Renderers must then be safe to call off the main thread. A board can still be updated directly from the
+ * main thread, and while its prepared packets wait for the next tick, the direct update is sent after them.
+ * <pre>
+ *     ScoreboardManager manager = new ScoreboardManager(plugin, 2);
+ *     manager.setRenderer(new ScoreboardRenderer() { ... });
+ *     manager.start();
+ * </pre>
+ */
+public class ScoreboardManager implements Listener {
+
+    private final JavaPlugin plugin;
+    @Getter
+    private final long interval;
+    @Getter
+    private final int workerThreads;
+
+    private final Map<UUID, Scoreboard> boards = new ConcurrentHashMap<>();
+    private final Map<UUID, ScoreboardRenderer> renderers = new ConcurrentHashMap<>();
+
+    /**
+     * The renderer of every player without a renderer of their own
+     */
+    @Getter
+    @Setter
+    @Nullable
+    private volatile ScoreboardRenderer renderer;
+
+    private BukkitTask task;
+    private ExecutorService workers;
+    private long ticks;
+
+    private final Queue<PreparedUpdate> prepared = new ConcurrentLinkedQueue<>();
+    // The boards of the current pass which are still being prepared
+    private volatile AtomicInteger preparing;
+
+    private long passes;
+    private long failures;
+    private int lastBoards;
+    private long lastPackets;
+    private long lastPassNanos;
+    private long maxPassNanos;
+    private long totalPassNanos;
+
+    /**
+     * Creates a new scoreboard manager rendering on the main thread.
+     *
+     * @param plugin   the plugin owning the listener and render task
+     * @param interval the ticks between two render passes
+     */
+    public ScoreboardManager(@NotNull JavaPlugin plugin, long interval) {
+        this(plugin, interval, 0);
+    }
+
+    /**
+     * Creates a new scoreboard manager.
+     *
+     * @param plugin        the plugin owning the listener and render task
+     * @param interval      the ticks between two render passes
+     * @param workerThreads the threads rendering boards and building their packets, or 0 to do it on the main thread
+     */
+    public ScoreboardManager(@NotNull JavaPlugin plugin, long interval, int workerThreads) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive, got " + interval);
+        }
+        if (workerThreads < 0) {
+            throw new IllegalArgumentException("Worker threads can't be negative, got " + workerThreads);
+        }
+
+        this.plugin = plugin;
+        this.interval = interval;
+        this.workerThreads = workerThreads;
+    }
+
+    /**
+     * Start managing boards, creating one for every online player and starting the render loop.
+     */
+    public synchronized void start() {
+        if (this.task != null) {
+            return;
+        }
+
+        Bukkit.getPluginManager().registerEvents(this, this.plugin);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            create(player);
+        }
+
+        if (this.workerThreads == 0) {
+            this.task = Bukkit.getScheduler().runTaskTimer(this.plugin, this::render, this.interval, this.interval);
+            return;
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "Framework-Scoreboard-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticks = 0;
+        this.task = Bukkit.getScheduler().runTaskTimer(this.plugin, this::tick, 1, 1);
+    }
+
+    /**
+     * Stop the render loop and delete every board.
+     */
+    public synchronized void stop() {
+        if (this.task == null) {
+            return;
+        }
+
+        this.task.cancel();
+        this.task = null;
+        HandlerList.unregisterAll(this);
+
+        if (this.workers != null) {
+            this.workers.shutdownNow();
+            this.workers = null;
+        }
+        this.preparing = null;
+        this.prepared.clear();
+
+        for (UUID uuid : this.boards.keySet()) {
+            remove(uuid);
+        }
+    }
+
+    /**
+     * Get the board of a player.
+     * <p>
+     * The board may be updated directly, but its renderer overwrites the lines it renders on the next pass.
+     *
+     * @param player the player
+     * @return the player's board, or null if they don't have one
+     */
+    @Nullable
+    public Scoreboard getBoard(@NotNull Player player) {
+        return this.boards.get(player.getUniqueId());
+    }
+
+    /**
+     * Get every managed board.
+     *
+     * @return the boards
+     */
+    @NotNull
+    public Collection<Scoreboard> getBoards() {
+        return Collections.unmodifiableCollection(this.boards.values());
+    }
+
+    /**
+     * Set the renderer of a single player, which takes priority over the default renderer.
+     *
+     * @param player   the player
+     * @param renderer the renderer, or null to use the default renderer again
+     */
+    public void setRenderer(@NotNull Player player, @Nullable ScoreboardRenderer renderer) {
+        if (renderer == null) {
+            this.renderers.remove(player.getUniqueId());
+        } else {
+            this.renderers.put(player.getUniqueId(), renderer);
+        }
+    }
+
+    /**
+     * Run a render pass now, updating every board from its renderer.
+     * <p>
+     * With worker threads, this only starts preparing the boards, unless the previous pass is still being prepared.
+     */
+    public void render() {
+        ExecutorService workers = this.workers;
+        if (workers != null) {
+            prepare(workers);
+            return;
+        }
+
+        long start = System.nanoTime();
+        int rendered = 0;
+        long packets = 0;
+        long failed = 0;
+
+        for (Map.Entry<UUID, Scoreboard> entry : this.boards.entrySet()) {
+            ScoreboardRenderer renderer = this.renderers.getOrDefault(entry.getKey(), this.renderer);
+            Scoreboard board = entry.getValue();
+            if (renderer == null || board.isDeleted()) {
+                continue;
+            }
+
+            long sent = board.getPacketsSent();
+            try {
+                Player player = board.getPlayer();
+                String title = renderer.getTitle(player);
+                if (title != null) {
+                    board.updateTitle(title);
+                }
+
+                List<String> lines = renderer.getLines(player);
+                if (lines != null) {
+                    board.updateLines(lines);
+                }
+            } catch (RuntimeException e) {
+                failed++;
+                Bukkit.getLogger().log(Level.WARNING, "[FrameworkAPI] Failed to render scoreboard of " + board.getPlayer().getName(), e);
+            }
+
+            packets += board.getPacketsSent() - sent;
+            rendered++;
+        }
+
+        record(System.nanoTime() - start, rendered, packets, failed);
+    }
+
+    /**
+     * Send every prepared update through the player connections, and start a render pass when one is due.
+     */
+    private void tick() {
+        PreparedUpdate update;
+        while ((update = this.prepared.poll()) != null) {
+            try {
+                update.board.sendPackets(update.packets);
+            } catch (RuntimeException e) {
+                Bukkit.getLogger().log(Level.WARNING, "[FrameworkAPI] Failed to send scoreboard of " + update.board.getPlayer().getName(), e);
+            }
+        }
+
+        if (++this.ticks % this.interval == 0) {
+            render();
+        }
+    }
+
+    /**
+     * Renders every board and builds its packets on the workers.
+     *
+     * @param workers the worker threads
+     */
+    private void prepare(ExecutorService workers) {
+        // Only one pass is prepared at a time, so a board's packets are always sent in order
+        AtomicInteger previous = this.preparing;
+        if (previous != null && previous.get() > 0) {
+            return;
+        }
+
+        List<Scoreboard> boards = new ArrayList<>(this.boards.size());
+        List<ScoreboardRenderer> boardRenderers = new ArrayList<>(this.boards.size());
+        for (Map.Entry<UUID, Scoreboard> entry : this.boards.entrySet()) {
+            ScoreboardRenderer renderer = this.renderers.getOrDefault(entry.getKey(), this.renderer);
+            if (renderer != null && !entry.getValue().isDeleted()) {
+                boards.add(entry.getValue());
+                boardRenderers.add(renderer);
+            }
+        }
+
+        long start = System.nanoTime();
+        if (boards.isEmpty()) {
+            record(System.nanoTime() - start, 0, 0, 0);
+            return;
+        }
+
+        AtomicLong packets = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicInteger remaining = new AtomicInteger(boards.size());
+        this.preparing = remaining;
+
+        for (int i = 0; i < boards.size(); i++) {
+            Scoreboard board = boards.get(i);
+            ScoreboardRenderer renderer = boardRenderers.get(i);
+
+            workers.execute(() -> {
+                try {
+                    Player player = board.getPlayer();
+                    List<Object> update = board.prepareUpdate(renderer.getTitle(player), renderer.getLines(player));
+                    if (!update.isEmpty()) {
+                        this.prepared.add(new PreparedUpdate(board, update));
+                        packets.addAndGet(update.size());
+                    }
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    Bukkit.getLogger().log(Level.WARNING, "[FrameworkAPI] Failed to render scoreboard of " + board.getPlayer().getName(), e);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        record(System.nanoTime() - start, boards.size(), packets.get(), failed.get());
+                    }
+                }
+            });
+        }
+    }
+
+    private synchronized void record(long elapsed, int rendered, long packets, long failed) {
+        this.passes++;
+        this.failures += failed;
+        this.lastBoards = rendered;
+        this.lastPackets = packets;
+        this.lastPassNanos = elapsed;
+        this.maxPassNanos = Math.max(this.maxPassNanos, elapsed);
+        this.totalPassNanos += elapsed;
+    }
+
+    /**
+     * Get a snapshot of the render pass timings.
+     *
+     * @return the render stats
+     */
+    @NotNull
+    public synchronized RenderStats getStats() {
+        return new RenderStats(this.passes, this.failures, this.lastBoards, this.lastPackets, this.lastPassNanos, this.maxPassNanos, this.totalPassNanos);
+    }
+
+    /**
+     * Reset the render pass timings.
+     */
+    public synchronized void resetStats() {
+        this.passes = 0;
+        this.failures = 0;
+        this.lastBoards = 0;
+        this.lastPackets = 0;
+        this.lastPassNanos = 0;
+        this.maxPassNanos = 0;
+        this.totalPassNanos = 0;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        create(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        remove(uuid);
+        this.renderers.remove(uuid);
+    }
+
+    private void create(Player player) {
+        this.boards.computeIfAbsent(player.getUniqueId(), uuid -> new Scoreboard(player));
+    }
+
+    private void remove(UUID uuid) {
+        Scoreboard board = this.boards.remove(uuid);
+        if (board == null || board.isDeleted()) {
+            return;
+        }
+
+        try {
+            board.delete();
+        } catch (RuntimeException e) {
+            Bukkit.getLogger().log(Level.WARNING, "[FrameworkAPI] Failed to delete scoreboard of " + board.getPlayer().getName(), e);
+        }
+    }
+
+    private static class PreparedUpdate {
+        private final Scoreboard board;
+        private final List<Object> packets;
+
+        private PreparedUpdate(Scoreboard board, List<Object> packets) {
+            this.board = board;
+            this.packets = packets;
+        }
+    }
+}
@@ -54,6 +54,20 @@ public class BukkitSerializer {
     }
 
     public String itemStackArrayToBase64(@NotNull ItemStack[] items) throws IllegalStateException {
+        return Base64Coder.encodeLines(itemStackArrayToBytes(items));
+    }
+
+    /**
+     * Serialize item stacks into raw bytes
+     * <p></p>
+     * <p>Unlike {@link #itemStackArrayToBase64(ItemStack[])}, the bytes can be stored as they are in a</p>
+     * <p>{@code BLOB} or {@code VARBINARY} column, without a third of their size added by Base64.</p>
+     *
+     * @param items The item stacks
+     * @return The serialized item stacks
+     * @throws IllegalStateException if the item stacks could not be serialized
+     */
+    public byte[] itemStackArrayToBytes(@NotNull ItemStack[] items) throws IllegalStateException {
         try {
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream);
@@ -68,13 +82,25 @@ public class BukkitSerializer {
 
             // Serialize that array
             dataOutput.close();
-            return Base64Coder.encodeLines(outputStream.toByteArray());
+            return outputStream.toByteArray();
         } catch (Exception e) {
             throw new IllegalStateException("Unable to save item stacks.", e);
         }
     }
 
     public String inventoryToBase64(@NotNull Inventory inventory) throws IllegalStateException {
+        return Base64Coder.encodeLines(inventoryToBytes(inventory));
+    }
+
+    /**
+     * Serialize an inventory's contents into raw bytes
+     *
+     * @param inventory The inventory
+     * @return The serialized inventory
+     * @throws IllegalStateException if the inventory could not be serialized
+     * @see #itemStackArrayToBytes(ItemStack[])
+     */
+    public byte[] inventoryToBytes(@NotNull Inventory inventory) throws IllegalStateException {
         try {
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             BukkitObjectOutputStream dataOutput = new BukkitObjectOutputStream(outputStream);
@@ -89,16 +115,26 @@ public class BukkitSerializer {
 
             // Serialize that array
             dataOutput.close();
-            return Base64Coder.encodeLines(outputStream.toByteArray());
+            return outputStream.toByteArray();
         } catch (Exception e) {
             throw new IllegalStateException("Unable to save item stacks.", e);
         }
     }
 
-    @SneakyThrows
     public Inventory inventoryFromBase64(@NotNull String data) throws IllegalStateException {
+        return inventoryFromBytes(Base64Coder.decodeLines(data));
+    }
+
+    /**
+     * Deserialize an inventory serialized with {@link #inventoryToBytes(Inventory)}
+     *
+     * @param data The serialized inventory
+     * @return A new inventory holding the contents
+     */
+    @SneakyThrows
+    public Inventory inventoryFromBytes(@NotNull byte[] data) throws IllegalStateException {
         try {
-            ByteArrayInputStream inputStream = new ByteArrayInputStream(Base64Coder.decodeLines(data));
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(data);
             BukkitObjectInputStream dataInput = new BukkitObjectInputStream(inputStream);
             Inventory inventory = Bukkit.getServer().createInventory(null, dataInput.readInt());
 
@@ -114,10 +150,20 @@ public class BukkitSerializer {
         }
     }
 
-    @SneakyThrows
     public ItemStack[] itemStackArrayFromBase64(@NotNull String data) throws IllegalStateException {
+        return itemStackArrayFromBytes(Base64Coder.decodeLines(data));
+    }
+
+    /**
+     * Deserialize item stacks serialized with {@link #itemStackArrayToBytes(ItemStack[])}
+     *
+     * @param data The serialized item stacks
+     * @return The item stacks
+     */
+    @SneakyThrows
+    public ItemStack[] itemStackArrayFromBytes(@NotNull byte[] data) throws IllegalStateException {
         try {
-            ByteArrayInputStream inputStream = new ByteArrayInputStream(Base64Coder.decodeLines(data));
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(data);
             BukkitObjectInputStream dataInput = new BukkitObjectInputStream(inputStream);
             ItemStack[] items = new ItemStack[dataInput.readInt()];
 